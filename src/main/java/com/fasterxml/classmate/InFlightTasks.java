@@ -0,0 +1,88 @@
+package com.fasterxml.classmate;
+
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Helper class used for running asynchronous resolution tasks so that concurrent
+ * requests with equal keys share a single task (and its result) while
+ * it is in progress. Each caller gets its own dependent future, so that
+ * cancelling (or completing) it does not affect other callers.
+ *
+ * @since 1.6
+ */
+final class InFlightTasks<K, V>
+{
+    private final ConcurrentHashMap<K, CompletableFuture<V>> _pending
+        = new ConcurrentHashMap<K, CompletableFuture<V>>(16, 0.75f, 4);
+
+    /**
+     * Method for getting result of task for given key: if task for an equal key
+     * is in progress, its result is shared; otherwise given task is run using
+     * given executor.
+     */
+    public CompletableFuture<V> submit(final K key, final Callable<V> task, Executor executor)
+    {
+        CompletableFuture<V> shared = _pending.get(key);
+        if (shared == null) {
+            final CompletableFuture<V> created = new CompletableFuture<V>();
+            shared = _pending.putIfAbsent(key, created);
+            if (shared == null) {
+                shared = created;
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            _run(key, task, created);
+                        }
+                    });
+                } catch (RuntimeException e) { // usually RejectedExecutionException
+                    _pending.remove(key, created);
+                    created.completeExceptionally(e);
+                }
+            }
+        }
+        return _dependent(shared);
+    }
+
+    /**
+     * @return Number of tasks currently in progress (or waiting to be run)
+     */
+    public int size() {
+        return _pending.size();
+    }
+
+    private void _run(K key, Callable<V> task, CompletableFuture<V> result)
+    {
+        V value = null;
+        Throwable problem = null;
+        try {
+            value = task.call();
+        } catch (Throwable t) {
+            problem = t;
+        }
+        // no longer in progress: later requests will start a new task (if still needed)
+        _pending.remove(key, result);
+        if (problem == null) {
+            result.complete(value);
+        } else {
+            result.completeExceptionally(problem);
+        }
+    }
+
+    private static <V> CompletableFuture<V> _dependent(CompletableFuture<V> shared)
+    {
+        final CompletableFuture<V> result = new CompletableFuture<V>();
+        shared.whenComplete(new BiConsumer<V, Throwable>() {
+            @Override
+            public void accept(V value, Throwable problem) {
+                if (problem == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(problem);
+                }
+            }
+        });
+        return result;
+    }
+}
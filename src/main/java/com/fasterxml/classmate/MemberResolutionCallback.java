@@ -0,0 +1,34 @@
+package com.fasterxml.classmate;
+
+import java.lang.reflect.Type;
+
+/**
+ * Interface for objects that are notified of results of bulk member
+ * resolution (see {@link MemberResolver#resolveAll}), as soon as each type
+ * has been resolved. Since types are resolved in parallel, methods may be
+ * called concurrently from multiple threads, and implementations need to
+ * be thread-safe.
+ *
+ * @since 1.6
+ */
+public interface MemberResolutionCallback
+{
+    /**
+     * Method called once members of given type have been fully resolved
+     * (that is, all categories of members are available without further
+     * resolution).
+     *
+     * @param input Type as given to {@link MemberResolver#resolveAll}
+     * @param members Fully resolved members of the type
+     */
+    public void resolved(Type input, ResolvedTypeWithMembers members);
+
+    /**
+     * Method called if resolution of given type, or any of its members, failed.
+     *
+     * @param input Type as given to {@link MemberResolver#resolveAll}
+     * @param problem Problem that caused failure; may also be an {@link Error}
+     *    (usually a {@link LinkageError}) if a type could not be loaded
+     */
+    public void failed(Type input, Throwable problem);
+}
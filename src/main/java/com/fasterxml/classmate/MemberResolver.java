@@ -1,7 +1,17 @@
 package com.fasterxml.classmate;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.classmate.members.*;
 import com.fasterxml.classmate.util.ClassKey;
@@ -56,6 +66,63 @@ public class MemberResolver implements Serializable
      * constructors.
      */
     protected Filter<RawConstructor> _constructorFilter;
+
+    /**
+     * Maximum number of fully resolved results to cache; 0 if caching is
+     * disabled (default).
+     *
+     * @since 1.6
+     */
+    protected int _cfgResultCacheSize;
+
+    /**
+     * Pool to use for resolving member methods of types with many methods
+     * in parallel, if any. Pool itself is not serialized; on deserialization,
+     * common pool is used if it was used originally, otherwise a new pool
+     * with same parallelism is constructed (see {@link #_cfgParallelism}).
+     *
+     * @since 1.6
+     */
+    protected transient ForkJoinPool _parallelPool;
+
+    /**
+     * Parallelism of {@link #_parallelPool}, if any (0 if parallel resolution
+     * is not enabled); -1 for the common pool. Needed for re-creating pool on
+     * deserialization.
+     *
+     * @since 1.6
+     */
+    protected int _cfgParallelism;
+
+    /**
+     * Minimum number of member methods to resolve for resolution to be done
+     * in parallel, if {@link #_parallelPool} is specified.
+     *
+     * @since 1.6
+     */
+    protected int _cfgParallelThreshold;
+
+    /*
+    /**********************************************************************
+    /* Caching
+    /**********************************************************************
+     */
+
+    /**
+     * Cache of fully resolved results, if caching is enabled; lazily
+     * (re-)constructed after deserialization.
+     *
+     * @since 1.6
+     */
+    protected transient volatile ResultCache _resultCache;
+
+    /**
+     * Asynchronous resolution requests (see {@link #resolveAsync}) in progress;
+     * lazily constructed.
+     *
+     * @since 1.6
+     */
+    protected transient volatile InFlightTasks<ResultKey, ResolvedTypeWithMembers> _inFlight;
     
     /*
     /**********************************************************************
@@ -96,7 +163,88 @@ public class MemberResolver implements Serializable
         _constructorFilter = f;
         return this;
     }
+
+    /**
+     * Configuration method for enabling caching of results of {@link #resolve}:
+     * if enabled (size above zero), up to specified number of most recently
+     * used results are retained, and returned for later calls with same
+     * main type, annotation configuration and overrides, as long as other
+     * configuration (filters, inclusion of <code>java.lang.Object</code>)
+     * is the same as well.
+     *<p>
+     * Cached results are shared between callers (and threads); members are
+     * still resolved lazily, at most once per instance (see
+     * {@link ResolvedTypeWithMembers}). Callers must not modify arrays
+     * returned by accessors of such instances.
+     * Annotation configuration and overrides, as well as filters, are compared
+     * by identity, so they should not be modified once used.
+     *
+     * @param maxEntries Maximum number of results to cache; 0 to disable caching
+     *
+     * @since 1.6
+     */
+    public MemberResolver setResultCacheSize(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Cache size can not be negative, was "+maxEntries);
+        }
+        _cfgResultCacheSize = maxEntries;
+        _resultCache = (maxEntries == 0) ? null : new ResultCache(maxEntries);
+        return this;
+    }
+
+    /**
+     * Configuration method for enabling parallel resolution of member methods
+     * (see {@link ResolvedTypeWithMembers#getMemberMethods}) for types that have
+     * at least specified number of member methods to resolve (including inherited
+     * ones): if enabled, types of such methods are resolved in parallel using given
+     * pool, after which results are merged in the same order as with sequential
+     * resolution, so results are identical.
+     * Parallel resolution is mostly useful for very large (usually generated) classes
+     * with thousands of methods; for smaller types overhead outweighs benefits.
+     *<p>
+     * Note that this requires that annotation configuration and filters
+     * used are thread-safe.
+     *
+     * @param pool Pool to use for resolution; null to disable parallel resolution
+     * @param minMethods Minimum number of member methods to resolve in parallel
+     *
+     * @since 1.6
+     */
+    public MemberResolver setParallelMemberResolution(ForkJoinPool pool, int minMethods) {
+        if (minMethods < 1) {
+            throw new IllegalArgumentException("Minimum number of methods must be positive, was "+minMethods);
+        }
+        _parallelPool = pool;
+        if (pool == null) {
+            _cfgParallelism = 0;
+        } else {
+            _cfgParallelism = (pool == ForkJoinPool.commonPool()) ? -1 : pool.getParallelism();
+        }
+        _cfgParallelThreshold = minMethods;
+        return this;
+    }
+
+    /**
+     * @return Number of results currently cached, if caching is enabled; 0 otherwise
+     *
+     * @since 1.6
+     */
+    public int getResultCacheEntryCount() {
+        ResultCache cache = _resultCache;
+        return (cache == null) ? 0 : cache.size();
+    }
     
+    // For JDK serialization: need to re-create pool for parallel resolution, if one was used
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        if (_cfgParallelism < 0) {
+            _parallelPool = ForkJoinPool.commonPool();
+        } else if (_cfgParallelism > 0) {
+            _parallelPool = new ForkJoinPool(_cfgParallelism);
+        }
+    }
+
     /*
     /**********************************************************************
     /* Public API
@@ -117,6 +265,58 @@ public class MemberResolver implements Serializable
             AnnotationConfiguration annotationConfig,
             AnnotationOverrides annotationOverrides)
     {
+        return _resolve(_configSnapshot(mainType, annotationConfig, annotationOverrides));
+    }
+
+    /**
+     * Helper method for capturing current configuration (filters, inclusion of
+     * <code>java.lang.Object</code>) along with arguments of a resolution request,
+     * so that configuration changes during resolution do not affect it.
+     *
+     * @since 1.6
+     */
+    protected ResultKey _configSnapshot(ResolvedType mainType,
+            AnnotationConfiguration annotationConfig,
+            AnnotationOverrides annotationOverrides)
+    {
+        return new ResultKey(mainType, annotationConfig, annotationOverrides,
+                _fieldFilter, _methodFilter, _constructorFilter, _cfgIncludeLangObject);
+    }
+
+    /**
+     * Method for resolving members as specified by given configuration snapshot,
+     * using result cache if one is enabled.
+     *
+     * @since 1.6
+     */
+    protected ResolvedTypeWithMembers _resolve(ResultKey config)
+    {
+        if (_cfgResultCacheSize == 0) {
+            return _resolveUncached(config);
+        }
+        ResultCache cache = _resultCache;
+        if (cache == null) { // after deserialization; race is fine, results just not retained
+            _resultCache = cache = new ResultCache(_cfgResultCacheSize);
+        }
+        ResolvedTypeWithMembers result = cache.find(config);
+        if (result == null) {
+            result = _resolveUncached(config);
+            cache.put(config, result);
+        }
+        return result;
+    }
+
+    /**
+     * Method for constructing hierarchy object for given configuration snapshot,
+     * without using result cache.
+     *
+     * @since 1.6
+     */
+    protected ResolvedTypeWithMembers _resolveUncached(ResultKey config)
+    {
+        final ResolvedType mainType = config._mainType;
+        final AnnotationOverrides annotationOverrides = config._annotationOverrides;
+        final boolean includeLangObject = config._includeLangObject;
         List<ResolvedType> types = new ArrayList<ResolvedType>();
         HashSet<ClassKey> seenTypes = new HashSet<ClassKey>();
 
@@ -125,13 +325,13 @@ public class MemberResolver implements Serializable
         // 09-May-2016, tatu: Special case, from [#30] is that of `Object.class`, which
         //   by default settings has no parentage. Not 100% sure this is proper fix, but
         //   it does take care of the immediate problem.
-        if (!_cfgIncludeLangObject && (mainType.getErasedType() == Object.class)) {
+        if (!includeLangObject && (mainType.getErasedType() == Object.class)) {
             types = new ArrayList<ResolvedType>(1);
             types.add(mainType);
             seenTypes.add(new ClassKey(Object.class));
         } else {
             types = new ArrayList<ResolvedType>();
-            _gatherTypes(mainType, seenTypes, types);
+            _collectTypes(mainType, seenTypes, types, includeLangObject);
         }
 
         // Second step: inject mix-ins (keeping order from highest to lowest)
@@ -154,7 +354,7 @@ public class MemberResolver implements Serializable
                 List<Class<?>> m = annotationOverrides.mixInsFor(type.getErasedType());
                 if (m != null) {
                     for (Class<?> mixinClass : m) {
-                        _addOverrides(typesWithMixins, seenTypes, mixinClass);
+                        _collectOverrides(typesWithMixins, seenTypes, mixinClass, includeLangObject);
                     }
                 }
 
@@ -168,11 +368,255 @@ public class MemberResolver implements Serializable
             htypes = typesWithMixins.toArray(new HierarchicType[typesWithMixins.size()]);
         }
         // And that's about all we need to do; rest computed lazily
-        return new ResolvedTypeWithMembers(_typeResolver, annotationConfig, mainHierarchicType,
-                htypes, _constructorFilter, _fieldFilter, _methodFilter);
+        return new ResolvedTypeWithMembers(_typeResolver, config._annotationConfig, mainHierarchicType,
+                htypes, config._constructorFilter, config._fieldFilter, config._methodFilter,
+                _parallelPool, _cfgParallelThreshold);
+    }
+
+    /**
+     * Method for pre-resolving types, and all their members, in parallel using
+     * given executor: types are resolved using the type resolver of this member
+     * resolver, and then all members (fields, methods, constructors; both static
+     * and member) resolved. Method blocks until all types have been resolved
+     * (or failed).
+     *<p>
+     * Since member information is not cached by member resolver itself, this
+     * mostly helps by populating caches of the type resolver (including supertypes
+     * and types of members), and raw member information of resolved types.
+     *
+     * @param types Types to resolve; any types accepted by {@link TypeResolver#resolve(Type, Type...)}
+     * @param annotationConfig Configuration of annotation types; which ones to include, how to inherit
+     * @param annotationOverrides Definitions of annotation overrides to use, if any (may be null)
+     * @param executor Executor to use for running resolution tasks
+     *
+     * @return Report of time it took to resolve each type, and of failures, if any
+     *
+     * @since 1.6
+     */
+    public WarmUpReport warmUp(Collection<? extends Type> types,
+            final AnnotationConfiguration annotationConfig,
+            final AnnotationOverrides annotationOverrides,
+            Executor executor)
+        throws InterruptedException
+    {
+        return new WarmUpRunner<Type>() {
+            @Override
+            protected String describe(Type input) {
+                return typeName(input);
+            }
+
+            @Override
+            protected void warmUp(Type input) {
+                _warmUp(_typeResolver.resolve(input), annotationConfig, annotationOverrides);
+            }
+        }.run(types, executor);
+    }
+
+    /**
+     * Alternative to {@link #warmUp(Collection, AnnotationConfiguration, AnnotationOverrides, Executor)}
+     * that takes names of classes to resolve, instead of types. Classes are loaded
+     * (but not initialized) using given class loader; failures to locate classes are
+     * included in the report.
+     *
+     * @since 1.6
+     */
+    public WarmUpReport warmUpClasses(Collection<String> classNames, final ClassLoader loader,
+            final AnnotationConfiguration annotationConfig,
+            final AnnotationOverrides annotationOverrides,
+            Executor executor)
+        throws InterruptedException
+    {
+        return new WarmUpRunner<String>() {
+            @Override
+            protected String describe(String input) {
+                return input;
+            }
+
+            @Override
+            protected void warmUp(String input) throws ClassNotFoundException {
+                _warmUp(_typeResolver.resolve(Class.forName(input, false, loader)),
+                        annotationConfig, annotationOverrides);
+            }
+        }.run(classNames, executor);
+    }
+
+    /**
+     * Method for resolving members of a (potentially large) set of types in parallel,
+     * using given work-stealing pool, and passing results to given callback as soon
+     * as each type has been fully resolved (including all its members).
+     * Method blocks until all types have been resolved (or failed).
+     *<p>
+     * Types themselves are first resolved together, using
+     * {@link TypeResolver#resolveAll}, so that supertypes shared between types
+     * are only resolved once (and their raw members only located once);
+     * members of each type are then resolved as a separate task on the pool.
+     * Same annotation configuration and overrides are used for all types;
+     * they (as well as filters used) need to be thread-safe.
+     *<p>
+     * Failure to resolve a type, including {@link LinkageError}s caused by types
+     * of members that can not be loaded, is reported to the callback and does not
+     * prevent other types from being resolved; only {@link VirtualMachineError}s
+     * (and exceptions thrown by the callback itself) abort the whole call.
+     *
+     * @param types Types to resolve; any types accepted by {@link TypeResolver#resolve(Type, Type...)}
+     * @param annotationConfig Configuration of annotation types; which ones to include, how to inherit
+     * @param annotationOverrides Definitions of annotation overrides to use, if any (may be null)
+     * @param pool Pool to use for resolving members; if null, {@link ForkJoinPool#commonPool()}
+     *    is used
+     * @param callback Callback to notify of results (and failures) for each type; called
+     *    from threads of the pool
+     *
+     * @return Number of types successfully resolved
+     *
+     * @since 1.6
+     */
+    public int resolveAll(Collection<? extends Type> types,
+            final AnnotationConfiguration annotationConfig,
+            final AnnotationOverrides annotationOverrides,
+            ForkJoinPool pool, final MemberResolutionCallback callback)
+        throws InterruptedException
+    {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback can not be null");
+        }
+        if (pool == null) {
+            pool = ForkJoinPool.commonPool();
+        }
+        final List<Type> inputs = new ArrayList<Type>(types);
+        // If any of types fails, need to resolve them one by one to know which ones
+        List<ResolvedType> resolvedTypes;
+        try {
+            resolvedTypes = _typeResolver.resolveAll(inputs);
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable t) { // including LinkageErrors from classes that can not be loaded
+            resolvedTypes = null;
+        }
+        final int count = inputs.size();
+        final int[] successes = new int[count];
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(count);
+        for (int i = 0; i < count; ++i) {
+            final int index = i;
+            final Type input = inputs.get(i);
+            final ResolvedType resolvedType = (resolvedTypes == null) ? null : resolvedTypes.get(i);
+            tasks.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    ResolvedTypeWithMembers members;
+                    try {
+                        ResolvedType type = (resolvedType == null) ? _typeResolver.resolve(input) : resolvedType;
+                        members = resolve(type, annotationConfig, annotationOverrides);
+                        _resolveAllMembers(members);
+                    } catch (VirtualMachineError e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        // Not just Exceptions: LinkageErrors (like NoClassDefFoundError or
+                        // GenericSignatureFormatError) are common for unloadable members
+                        callback.failed(input, t);
+                        return;
+                    }
+                    successes[index] = 1;
+                    callback.resolved(input, members);
+                }
+            }));
+        }
+        int resolved = 0;
+        for (int i = 0; i < count; ++i) {
+            try {
+                tasks.get(i).get();
+            } catch (ExecutionException e) {
+                // Only thrown if callback itself failed (or for VirtualMachineErrors)
+                Throwable t = e.getCause();
+                if (t instanceof RuntimeException) {
+                    throw (RuntimeException) t;
+                }
+                if (t instanceof Error) {
+                    throw (Error) t;
+                }
+                throw new IllegalStateException("Callback failed: "+t, t);
+            }
+            resolved += successes[i];
+        }
+        return resolved;
+    }
+
+    /**
+     * Asynchronous variant of {@link #resolve}: members are resolved using given
+     * executor, and all (lazily resolved) members are resolved before returned
+     * future completes, so that accessors of the result do not block.
+     * If there is a request to resolve members of the same type, with same
+     * configuration, in progress, its result is shared instead of resolving
+     * members again.
+     *<p>
+     * Each call returns a separate future, so that callers may cancel (or complete)
+     * theirs without affecting other callers; but note that doing so does not
+     * cancel resolution itself.
+     *
+     * @param mainType Resolved type to resolve members for
+     * @param annotationConfig Configuration of annotation types; which ones to include, how to inherit
+     * @param annotationOverrides Definitions of annotation overrides to use, if any (may be null)
+     * @param executor Executor to use for resolution
+     *
+     * @return Future completed with resolved members, or exceptionally if resolution fails
+     *
+     * @since 1.6
+     */
+    public CompletableFuture<ResolvedTypeWithMembers> resolveAsync(final ResolvedType mainType,
+            final AnnotationConfiguration annotationConfig,
+            final AnnotationOverrides annotationOverrides,
+            Executor executor)
+    {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor can not be null");
+        }
+        InFlightTasks<ResultKey, ResolvedTypeWithMembers> inFlight = _inFlight;
+        if (inFlight == null) { // race is fine, at worst a few initial requests are not shared
+            _inFlight = inFlight = new InFlightTasks<ResultKey, ResolvedTypeWithMembers>();
+        }
+        // same configuration used both for sharing requests and for resolution itself
+        final ResultKey config = _configSnapshot(mainType, annotationConfig, annotationOverrides);
+        return inFlight.submit(config, new Callable<ResolvedTypeWithMembers>() {
+            @Override
+            public ResolvedTypeWithMembers call() {
+                ResolvedTypeWithMembers members = _resolve(config);
+                _resolveAllMembers(members);
+                return members;
+            }
+        }, executor);
+    }
+
+    protected void _warmUp(ResolvedType type, AnnotationConfiguration annotationConfig,
+            AnnotationOverrides annotationOverrides)
+    {
+        _resolveAllMembers(resolve(type, annotationConfig, annotationOverrides));
+    }
+
+    /**
+     * Helper method for forcing resolution of all (lazily resolved) members.
+     *
+     * @since 1.6
+     */
+    protected void _resolveAllMembers(ResolvedTypeWithMembers members)
+    {
+        members.getMemberFields();
+        members.getMemberMethods();
+        members.getStaticFields();
+        members.getStaticMethods();
+        members.getConstructors();
     }
 
     private void _addOverrides(List<HierarchicType> typesWithOverrides, Set<ClassKey> seenTypes, Class<?> override)
+    {
+        _collectOverrides(typesWithOverrides, seenTypes, override, _cfgIncludeLangObject);
+    }
+
+    private void _addOverrides(List<HierarchicType> typesWithOverrides, Set<ClassKey> seenTypes, ResolvedType override)
+    {
+        _collectOverrides(typesWithOverrides, seenTypes, override, _cfgIncludeLangObject);
+    }
+
+    private void _collectOverrides(List<HierarchicType> typesWithOverrides, Set<ClassKey> seenTypes, Class<?> override,
+            boolean includeLangObject)
     {
         ClassKey key = new ClassKey(override);
         if (!seenTypes.contains(key)) {
@@ -180,29 +624,30 @@ public class MemberResolver implements Serializable
             ResolvedType resolvedOverride = _typeResolver.resolve(override);
             typesWithOverrides.add(new HierarchicType(resolvedOverride, true, typesWithOverrides.size()));
             for (ResolvedType r : resolvedOverride.getImplementedInterfaces()) { // interfaces?
-                _addOverrides(typesWithOverrides, seenTypes, r);
+                _collectOverrides(typesWithOverrides, seenTypes, r, includeLangObject);
             }
             ResolvedType superClass = resolvedOverride.getParentClass();
-            _addOverrides(typesWithOverrides, seenTypes, superClass);
+            _collectOverrides(typesWithOverrides, seenTypes, superClass, includeLangObject);
         }
     }
 
-    private void _addOverrides(List<HierarchicType> typesWithOverrides, Set<ClassKey> seenTypes, ResolvedType override)
+    private void _collectOverrides(List<HierarchicType> typesWithOverrides, Set<ClassKey> seenTypes, ResolvedType override,
+            boolean includeLangObject)
     {
         if (override == null) return;
         // first: may need to exclude Object.class:
         Class<?> raw = override.getErasedType();
-        if (!_cfgIncludeLangObject && Object.class == raw) return;
+        if (!includeLangObject && Object.class == raw) return;
         ClassKey key = new ClassKey(raw);
         if (!seenTypes.contains(key)) {
             seenTypes.add(key);
             typesWithOverrides.add(new HierarchicType(override, true, typesWithOverrides.size()));
             for (ResolvedType r : override.getImplementedInterfaces()) { // interfaces?
-                _addOverrides(typesWithOverrides, seenTypes, r);
+                _collectOverrides(typesWithOverrides, seenTypes, r, includeLangObject);
             }
             ResolvedType superClass = override.getParentClass();
             if (superClass != null) {
-                _addOverrides(typesWithOverrides, seenTypes, superClass);
+                _collectOverrides(typesWithOverrides, seenTypes, superClass, includeLangObject);
             }
         }
     }
@@ -215,6 +660,12 @@ public class MemberResolver implements Serializable
     
     protected void _gatherTypes(ResolvedType currentType, Set<ClassKey> seenTypes,
             List<ResolvedType> types)
+    {
+        _collectTypes(currentType, seenTypes, types, _cfgIncludeLangObject);
+    }
+
+    private void _collectTypes(ResolvedType currentType, Set<ClassKey> seenTypes,
+            List<ResolvedType> types, boolean includeLangObject)
     {
         // may get called with null if no parent type
         if (currentType == null) {
@@ -222,7 +673,7 @@ public class MemberResolver implements Serializable
         }
         Class<?> raw = currentType.getErasedType();
         // Also, don't include Object.class unless that's ok
-        if (!_cfgIncludeLangObject && (raw == Object.class)) {
+        if (!includeLangObject && (raw == Object.class)) {
             return;
         }
         // Finally, only include first instance of an interface, so:
@@ -240,9 +691,117 @@ public class MemberResolver implements Serializable
          * correct order.
          */
         for (ResolvedType t : currentType.getImplementedInterfaces()) {
-            _gatherTypes(t, seenTypes, types);
+            _collectTypes(t, seenTypes, types, includeLangObject);
         }
         // and then superclass
-        _gatherTypes(currentType.getParentClass(), seenTypes, types);
+        _collectTypes(currentType.getParentClass(), seenTypes, types, includeLangObject);
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    /**
+     * Key for cached results: main type (compared by equality) and configuration
+     * (compared by identity). Also used as snapshot of configuration for
+     * a single resolution (see {@link MemberResolver#_configSnapshot}).
+     */
+    protected final static class ResultKey
+    {
+        private final ResolvedType _mainType;
+        private final AnnotationConfiguration _annotationConfig;
+        private final AnnotationOverrides _annotationOverrides;
+        private final Filter<RawField> _fieldFilter;
+        private final Filter<RawMethod> _methodFilter;
+        private final Filter<RawConstructor> _constructorFilter;
+        private final boolean _includeLangObject;
+        private final int _hashCode;
+
+        public ResultKey(ResolvedType mainType, AnnotationConfiguration annotationConfig,
+                AnnotationOverrides annotationOverrides,
+                Filter<RawField> fieldFilter, Filter<RawMethod> methodFilter,
+                Filter<RawConstructor> constructorFilter, boolean includeLangObject)
+        {
+            _mainType = mainType;
+            _annotationConfig = annotationConfig;
+            _annotationOverrides = annotationOverrides;
+            _fieldFilter = fieldFilter;
+            _methodFilter = methodFilter;
+            _constructorFilter = constructorFilter;
+            _includeLangObject = includeLangObject;
+            int h = mainType.hashCode();
+            h = 31 * h + System.identityHashCode(annotationConfig);
+            h = 31 * h + System.identityHashCode(annotationOverrides);
+            _hashCode = includeLangObject ? ~h : h;
+        }
+
+        @Override public int hashCode() { return _hashCode; }
+
+        @Override public boolean equals(Object o)
+        {
+            if (o == this) return true;
+            if (o == null || o.getClass() != getClass()) return false;
+            ResultKey other = (ResultKey) o;
+            return (other._hashCode == _hashCode)
+                    && (other._annotationConfig == _annotationConfig)
+                    && (other._annotationOverrides == _annotationOverrides)
+                    && (other._fieldFilter == _fieldFilter)
+                    && (other._methodFilter == _methodFilter)
+                    && (other._constructorFilter == _constructorFilter)
+                    && (other._includeLangObject == _includeLangObject)
+                    && other._mainType.equals(_mainType);
+        }
+    }
+
+    /**
+     * Simple LRU cache of fully resolved results; access is guarded by a lock
+     * (not by synchronizing, to avoid pinning carrier threads of virtual threads).
+     */
+    protected final static class ResultCache
+    {
+        private final LinkedHashMap<ResultKey, ResolvedTypeWithMembers> _map;
+
+        private final ReentrantLock _lock = new ReentrantLock();
+
+        public ResultCache(final int maxEntries) {
+            // access-ordered, to evict least-recently used entries
+            _map = new LinkedHashMap<ResultKey, ResolvedTypeWithMembers>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ResultKey, ResolvedTypeWithMembers> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        public ResolvedTypeWithMembers find(ResultKey key) {
+            _lock.lock();
+            try {
+                return _map.get(key);
+            } finally {
+                _lock.unlock();
+            }
+        }
+
+        public void put(ResultKey key, ResolvedTypeWithMembers value) {
+            _lock.lock();
+            try {
+                _map.put(key, value);
+            } finally {
+                _lock.unlock();
+            }
+        }
+
+        public int size() {
+            _lock.lock();
+            try {
+                return _map.size();
+            } finally {
+                _lock.unlock();
+            }
+        }
     }
 }
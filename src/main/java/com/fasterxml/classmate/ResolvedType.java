@@ -3,11 +3,11 @@ package com.fasterxml.classmate;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.*;
 
 import com.fasterxml.classmate.members.*;
+import com.fasterxml.classmate.util.ClassMembers;
 
 public abstract class ResolvedType
     implements Type
@@ -25,6 +25,14 @@ public abstract class ResolvedType
      * constructors) of this type
      */
     protected final TypeBindings _typeBindings;
+
+    /**
+     * Hash code of this type, calculated from erased type and type
+     * parameters (see {@link #structuralHash}) on construction
+     *
+     * @since 1.6
+     */
+    protected final int _hashCode;
     
     /*
     /**********************************************************************
@@ -36,6 +44,7 @@ public abstract class ResolvedType
     {
         _erasedType = cls;
         _typeBindings = (bindings == null) ? TypeBindings.emptyBindings() : bindings;
+        _hashCode = structuralHash(cls, _typeBindings.typeParameterArray());
     }
     
     /**
@@ -261,7 +270,26 @@ public abstract class ResolvedType
     }
 
     @Override public int hashCode() {
-        return _erasedType.getName().hashCode() + _typeBindings.hashCode();
+        return _hashCode;
+    }
+
+    /**
+     * Helper method for calculating hash code for type with given erased type
+     * and type parameters: uses (precalculated) hash codes of type parameters,
+     * so that different parameterizations of a class have different
+     * hash codes (as long as their type parameters do).
+     *
+     * @since 1.6
+     */
+    public static int structuralHash(Class<?> erasedType, ResolvedType[] typeParameters)
+    {
+        int h = erasedType.getName().hashCode();
+        if (typeParameters != null) {
+            for (ResolvedType type : typeParameters) {
+                h = (31 * h) + type.hashCode();
+            }
+        }
+        return h;
     }
 
     @Override public boolean equals(Object o)
@@ -347,19 +375,16 @@ public abstract class ResolvedType
      */
     protected RawField[] _getFields(boolean statics)
     {
-        ArrayList<RawField> fields = new ArrayList<RawField>();
-        for (Field f : _erasedType.getDeclaredFields()) {
-            // Only skip synthetic fields, which should not really be exposed
-            if (!f.isSynthetic()) {
-                if (Modifier.isStatic(f.getModifiers()) == statics) {
-                    fields.add(new RawField(this, f));
-                }
-            }
-        }
-        if (fields.isEmpty()) {
+        // Synthetic fields already skipped; reflection data shared with other parameterizations
+        Field[] raw = ClassMembers.forClass(_erasedType).fields(statics);
+        if (raw.length == 0) {
             return NO_FIELDS;
         }
-        return fields.toArray(new RawField[fields.size()]);
+        RawField[] fields = new RawField[raw.length];
+        for (int i = 0; i < raw.length; ++i) {
+            fields[i] = new RawField(this, raw[i]);
+        }
+        return fields;
     }
 
     /**
@@ -367,33 +392,27 @@ public abstract class ResolvedType
      */
     protected RawMethod[] _getMethods(boolean statics)
     {
-        ArrayList<RawMethod> methods = new ArrayList<RawMethod>();
-        for (Method m : _erasedType.getDeclaredMethods()) {
-            // Only skip synthetic fields, which should not really be exposed
-            if (!m.isSynthetic()) {
-                if (Modifier.isStatic(m.getModifiers()) == statics) {
-                    methods.add(new RawMethod(this, m));
-                }
-            }
-        }
-        if (methods.isEmpty()) {
+        Method[] raw = ClassMembers.forClass(_erasedType).methods(statics);
+        if (raw.length == 0) {
             return NO_METHODS;
         }
-        return methods.toArray(new RawMethod[methods.size()]);
+        RawMethod[] methods = new RawMethod[raw.length];
+        for (int i = 0; i < raw.length; ++i) {
+            methods[i] = new RawMethod(this, raw[i]);
+        }
+        return methods;
     }
 
     protected RawConstructor[] _getConstructors()
     {
-        ArrayList<RawConstructor> ctors = new ArrayList<RawConstructor>();
-        for (Constructor<?> c : _erasedType.getDeclaredConstructors()) {
-            // Only skip synthetic fields, which should not really be exposed
-            if (!c.isSynthetic()) {
-                ctors.add(new RawConstructor(this, c));
-            }
-        }
-        if (ctors.isEmpty()) {
+        Constructor<?>[] raw = ClassMembers.forClass(_erasedType).constructors();
+        if (raw.length == 0) {
             return NO_CONSTRUCTORS;
         }
-        return ctors.toArray(new RawConstructor[ctors.size()]);
+        RawConstructor[] ctors = new RawConstructor[raw.length];
+        for (int i = 0; i < raw.length; ++i) {
+            ctors[i] = new RawConstructor(this, raw[i]);
+        }
+        return ctors;
     }
 }
@@ -3,12 +3,18 @@ package com.fasterxml.classmate;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.classmate.members.*;
+import com.fasterxml.classmate.util.ClassMembers;
 import com.fasterxml.classmate.util.MethodKey;
 
 /**
@@ -18,8 +24,12 @@ import com.fasterxml.classmate.util.MethodKey;
  * as well ("mix-in annotations").
  * Instances are created by {@link com.fasterxml.classmate.MemberResolver}.
  *<p>
- * Note that instances are not thread-safe, as the expectation is that instances
- * will not be shared (unlike raw members or resolved types)
+ * Instances are thread-safe (as of 1.6) and may be shared between threads:
+ * each category of members (static and member fields and methods, constructors)
+ * is resolved lazily, at most once, when first requested, and safely published
+ * to all threads. Arrays returned are shared, so callers MUST NOT modify them.
+ * Note, however, that filters (and annotation configuration) used must themselves
+ * be thread-safe for instances to be shared.
  */
 public class ResolvedTypeWithMembers
 {
@@ -29,6 +39,11 @@ public class ResolvedTypeWithMembers
     private final static ResolvedField[] NO_RESOLVED_FIELDS = new ResolvedField[0];
     private final static ResolvedConstructor[] NO_RESOLVED_CONSTRUCTORS = new ResolvedConstructor[0];
 
+    /**
+     * Number of methods that a single parallel task resolves, at most
+     */
+    private final static int PARALLEL_TASK_SIZE = 32;
+
     /**
      * Default annotation configuration is to ignore all annotations types.
      */
@@ -72,21 +87,47 @@ public class ResolvedTypeWithMembers
      */
     protected Filter<RawMethod> _methodFilter;
 
+    /**
+     * Pool to use for resolving member methods in parallel, if any
+     *
+     * @since 1.6
+     */
+    protected final ForkJoinPool _parallelPool;
+
+    /**
+     * Minimum number of member methods to resolve for resolution to be done
+     * in parallel (if {@link #_parallelPool} is specified)
+     *
+     * @since 1.6
+     */
+    protected final int _parallelThreshold;
+
     /*
     /**********************************************************************
     /* Lazily constructed members
     /**********************************************************************
      */
 
-    protected ResolvedMethod[] _staticMethods = null;
+    // Note: volatile for safe publication; resolution itself is guarded
+    // by _lock, to be done at most once per category
 
-    protected ResolvedField[] _staticFields = null;
+    /**
+     * Lock used for resolving members; not synchronizing on this instance, as
+     * that would pin carrier threads of virtual threads during resolution.
+     *
+     * @since 1.6
+     */
+    private final ReentrantLock _lock = new ReentrantLock();
 
-    protected ResolvedMethod[] _memberMethods = null;
+    protected volatile ResolvedMethod[] _staticMethods = null;
 
-    protected ResolvedField[] _memberFields = null;
+    protected volatile ResolvedField[] _staticFields = null;
 
-    protected ResolvedConstructor[] _constructors = null;
+    protected volatile ResolvedMethod[] _memberMethods = null;
+
+    protected volatile ResolvedField[] _memberFields = null;
+
+    protected volatile ResolvedConstructor[] _constructors = null;
 
     /*
     /**********************************************************************
@@ -97,6 +138,30 @@ public class ResolvedTypeWithMembers
     public ResolvedTypeWithMembers(TypeResolver typeResolver, AnnotationConfiguration annotationConfig,
             HierarchicType mainType, HierarchicType[] types,
             Filter<RawConstructor> constructorFilter, Filter<RawField> fieldFilter, Filter<RawMethod> methodFilter)
+    {
+        this(typeResolver, annotationConfig, mainType, types, constructorFilter, fieldFilter, methodFilter,
+                null, 0);
+    }
+
+    /**
+     * Constructor that also specifies pool to use for resolving member methods in parallel.
+     * Member methods are resolved in parallel (using the pool) when there are at least
+     * <code>parallelThreshold</code> methods to resolve; results are then merged in
+     * the same (priority) order as with sequential resolution, so that results are
+     * identical in both cases. Note that this requires that {@link TypeResolver},
+     * annotation configuration and filters used are thread-safe.
+     *
+     * @param parallelPool Pool to use for resolving member methods, if any; null to
+     *    always resolve methods sequentially
+     * @param parallelThreshold Minimum number of member methods needed to resolve
+     *    methods in parallel
+     *
+     * @since 1.6
+     */
+    public ResolvedTypeWithMembers(TypeResolver typeResolver, AnnotationConfiguration annotationConfig,
+            HierarchicType mainType, HierarchicType[] types,
+            Filter<RawConstructor> constructorFilter, Filter<RawField> fieldFilter, Filter<RawMethod> methodFilter,
+            ForkJoinPool parallelPool, int parallelThreshold)
     {
         _typeResolver = typeResolver;
         _mainType = mainType;
@@ -108,6 +173,8 @@ public class ResolvedTypeWithMembers
         _constructorFilter = constructorFilter;
         _fieldFilter = fieldFilter;
         _methodFilter = methodFilter;
+        _parallelPool = parallelPool;
+        _parallelThreshold = parallelThreshold;
     }
     
     /*
@@ -168,10 +235,19 @@ public class ResolvedTypeWithMembers
      */
     public ResolvedField[] getStaticFields()
     {
-        if (_staticFields == null) {
-            _staticFields = resolveStaticFields();
+        ResolvedField[] result = _staticFields;
+        if (result == null) {
+            _lock.lock();
+            try {
+                result = _staticFields;
+                if (result == null) {
+                    _staticFields = result = resolveStaticFields();
+                }
+            } finally {
+                _lock.unlock();
+            }
         }
-        return _staticFields;
+        return result;
     }
     
     /**
@@ -181,34 +257,70 @@ public class ResolvedTypeWithMembers
      */
     public ResolvedMethod[] getStaticMethods()
     {
-        if (_staticMethods == null) {
-            _staticMethods = resolveStaticMethods();
+        ResolvedMethod[] result = _staticMethods;
+        if (result == null) {
+            _lock.lock();
+            try {
+                result = _staticMethods;
+                if (result == null) {
+                    _staticMethods = result = resolveStaticMethods();
+                }
+            } finally {
+                _lock.unlock();
+            }
         }
-        return _staticMethods;
+        return result;
     }
 
     public ResolvedField[] getMemberFields()
     {
-        if (_memberFields == null) {
-            _memberFields = resolveMemberFields();
+        ResolvedField[] result = _memberFields;
+        if (result == null) {
+            _lock.lock();
+            try {
+                result = _memberFields;
+                if (result == null) {
+                    _memberFields = result = resolveMemberFields();
+                }
+            } finally {
+                _lock.unlock();
+            }
         }
-        return _memberFields;
+        return result;
     }
     
     public ResolvedMethod[] getMemberMethods()
     {
-        if (_memberMethods == null) {
-            _memberMethods = resolveMemberMethods();
+        ResolvedMethod[] result = _memberMethods;
+        if (result == null) {
+            _lock.lock();
+            try {
+                result = _memberMethods;
+                if (result == null) {
+                    _memberMethods = result = resolveMemberMethods();
+                }
+            } finally {
+                _lock.unlock();
+            }
         }
-        return _memberMethods;
+        return result;
     }
 
     public ResolvedConstructor[] getConstructors()
     {
-        if (_constructors == null) {
-            _constructors = resolveConstructors();
+        ResolvedConstructor[] result = _constructors;
+        if (result == null) {
+            _lock.lock();
+            try {
+                result = _constructors;
+                if (result == null) {
+                    _constructors = result = resolveConstructors();
+                }
+            } finally {
+                _lock.unlock();
+            }
         }
-        return _constructors;
+        return result;
     }
     
     /*
@@ -244,7 +356,7 @@ public class ResolvedTypeWithMembers
                     }
 
                     // and parameter annotations
-                    Annotation[][] params = raw.getRawMember().getParameterAnnotations();
+                    Annotation[][] params = _parameterAnnotations(raw.getRawMember());
                     for (int i = 0; i < params.length; i++) {
                         for (Annotation annotation : params[i]) {
                             if (_annotationHandler.includeParameterAnnotation(annotation)) {
@@ -275,8 +387,9 @@ public class ResolvedTypeWithMembers
          * as overrides, never as defaults. And sub-classes fully mask fields. This makes
          * handling bit simpler than that of member methods.
          */
-        for (int typeIndex = _types.length; --typeIndex >= 0; ) {
-            HierarchicType thisType = _types[typeIndex];
+        final HierarchicType[] types = _typesToResolve();
+        for (int typeIndex = types.length; --typeIndex >= 0; ) {
+            HierarchicType thisType = types[typeIndex];
             // If it's just a mix-in, add annotations as overrides
             if (thisType.isMixin()) {
                 for (RawField raw : thisType.getType().getMemberFields()) {
@@ -314,17 +427,26 @@ public class ResolvedTypeWithMembers
         LinkedHashMap<MethodKey, Annotations> overrides = new LinkedHashMap<MethodKey, Annotations>();
         LinkedHashMap<MethodKey, Annotations[]> paramOverrides = new LinkedHashMap<MethodKey, Annotations[]>();
 
+        // First: find methods caller is interested in, for each type
+        final HierarchicType[] types = _typesToResolve();
+        final int typeCount = types.length;
+        List<List<RawMethod>> included = new ArrayList<List<RawMethod>>(typeCount);
+        for (HierarchicType type : types) {
+            included.add(_includedMemberMethods(type));
+        }
+        // and if resolving in parallel, resolve all methods that are not masked up-front;
+        // they are encountered in the same order below
+        ResolvedMethod[] preResolved = (_parallelPool == null) ? null
+                : _preResolveMemberMethods(types, included);
+        int preResolvedIndex = 0;
+
         /* Member methods are handled from top to bottom; and annotations are tracked
          * alongside (for overrides), as well as "merged down" for inheritable
          * annotations.
          */
-        for (HierarchicType type : allTypesAndOverrides()) {
-            for (RawMethod method : type.getType().getMemberMethods()) {
-                // First: ignore methods caller is not interested
-                if (_methodFilter != null && !_methodFilter.include(method)) {
-                    continue;
-                }
-
+        for (int typeIndex = 0; typeIndex < typeCount; ++typeIndex) {
+            final HierarchicType type = types[typeIndex];
+            for (RawMethod method : included.get(typeIndex)) {
                 MethodKey key = method.createKey();
                 ResolvedMethod old = methods.get(key);
                 
@@ -351,7 +473,7 @@ public class ResolvedTypeWithMembers
                     }
 
                     // override argument annotations
-                    final Annotation[][] argAnnotations = method.getRawMember().getParameterAnnotations();
+                    final Annotation[][] argAnnotations = _parameterAnnotations(method.getRawMember());
                     if (old == null) { // no method (yet), add argument annotations to override map
                         Annotations[] oldParamAnns = paramOverrides.get(key);
                         if (oldParamAnns == null) { // no existing argument annotations for method
@@ -385,7 +507,8 @@ public class ResolvedTypeWithMembers
                     }
                 } else { // "real" methods; add if not present, possibly add defaults as well
                     if (old == null) { // new one to add
-                        ResolvedMethod newMethod = resolveMethod(method);
+                        ResolvedMethod newMethod = (preResolved == null) ? resolveMethod(method)
+                                : preResolved[preResolvedIndex++];
                         methods.put(key, newMethod);
                         // But we may also have annotation overrides, so:
                         Annotations overrideAnn = overrides.get(key);
@@ -406,7 +529,7 @@ public class ResolvedTypeWithMembers
                             }
                         }
                         // and parameter annotations
-                        final Annotation[][] parameterAnnotations = method.getRawMember().getParameterAnnotations();
+                        final Annotation[][] parameterAnnotations = _parameterAnnotations(method.getRawMember());
                         for (int i = 0; i < parameterAnnotations.length; i++) {
                             for (final Annotation annotation : parameterAnnotations[i]) {
                                 if (parameterCanInherit(annotation)) {
@@ -425,6 +548,75 @@ public class ResolvedTypeWithMembers
         return methods.values().toArray(new ResolvedMethod[methods.size()]);
     }
     
+    /**
+     * Helper method for getting snapshot of types to resolve members from
+     * (see {@link #allTypesAndOverrides}), to use for a single resolution.
+     *
+     * @since 1.6
+     */
+    protected HierarchicType[] _typesToResolve()
+    {
+        List<HierarchicType> types = allTypesAndOverrides();
+        return types.toArray(new HierarchicType[types.size()]);
+    }
+
+    /**
+     * Helper method for finding member methods of given type that are not
+     * filtered out.
+     *
+     * @since 1.6
+     */
+    protected List<RawMethod> _includedMemberMethods(HierarchicType type)
+    {
+        List<RawMethod> methods = type.getType().getMemberMethods();
+        if (_methodFilter == null) {
+            return methods;
+        }
+        List<RawMethod> result = new ArrayList<RawMethod>(methods.size());
+        for (RawMethod method : methods) {
+            if (_methodFilter.include(method)) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for resolving, in parallel, all member methods that
+     * {@link #resolveMemberMethods} will need to resolve: that is, first
+     * method with given signature within non-mix-in types, in the order
+     * they will be encountered.
+     *
+     * @return Resolved methods, or null if there are not enough methods
+     *    to resolve in parallel
+     *
+     * @since 1.6
+     */
+    protected ResolvedMethod[] _preResolveMemberMethods(HierarchicType[] types,
+            List<List<RawMethod>> included)
+    {
+        List<RawMethod> toResolve = new ArrayList<RawMethod>();
+        HashSet<MethodKey> seen = new HashSet<MethodKey>();
+        for (int typeIndex = 0, typeCount = types.length; typeIndex < typeCount; ++typeIndex) {
+            // mix-ins only contribute annotations
+            if (!types[typeIndex].isMixin()) {
+                for (RawMethod method : included.get(typeIndex)) {
+                    if (seen.add(method.createKey())) {
+                        toResolve.add(method);
+                    }
+                }
+            }
+        }
+        final int count = toResolve.size();
+        if (count < _parallelThreshold) {
+            return null;
+        }
+        ResolvedMethod[] result = new ResolvedMethod[count];
+        _parallelPool.invoke(new MethodResolutionTask(toResolve.toArray(new RawMethod[count]),
+                result, 0, count));
+        return result;
+    }
+
     /**
      * Method for fully resolving static field definitions and associated annotations.
      * Neither field definitions nor associated annotations inherit, but we may
@@ -510,7 +702,7 @@ public class ResolvedTypeWithMembers
         final ResolvedType context = raw.getDeclaringType();
         final TypeBindings bindings = context.getTypeBindings();
         Constructor<?> ctor = raw.getRawMember();
-        Type[] rawTypes = ctor.getGenericParameterTypes();
+        Type[] rawTypes = ClassMembers.forClass(ctor.getDeclaringClass()).genericParameterTypes(ctor);
         ResolvedType[] argTypes;
         if (rawTypes == null || rawTypes.length == 0) {
             argTypes = NO_RESOLVED_TYPES;
@@ -531,7 +723,7 @@ public class ResolvedTypeWithMembers
         ResolvedConstructor constructor = new ResolvedConstructor(context, anns, ctor, argTypes);
 
         // and parameter annotations
-        Annotation[][] annotations = ctor.getParameterAnnotations();
+        Annotation[][] annotations = _parameterAnnotations(ctor);
         for (int i = 0; i < argTypes.length; i++) {
             for (Annotation ann : annotations[i]) {
                 constructor.applyParamOverride(i, ann);
@@ -569,7 +761,7 @@ public class ResolvedTypeWithMembers
         Method m = raw.getRawMember();
         Type rawType = m.getGenericReturnType();
         ResolvedType rt = (rawType == Void.TYPE) ? null : _typeResolver.resolve(bindings, rawType);
-        Type[] rawTypes = m.getGenericParameterTypes();
+        Type[] rawTypes = ClassMembers.forClass(m.getDeclaringClass()).genericParameterTypes(m);
         ResolvedType[] argTypes;
         if (rawTypes == null || rawTypes.length == 0) {
             argTypes = NO_RESOLVED_TYPES;
@@ -590,7 +782,7 @@ public class ResolvedTypeWithMembers
         ResolvedMethod method = new ResolvedMethod(context, anns, m, rt, argTypes);
 
         // and argument annotations
-        Annotation[][] annotations = m.getParameterAnnotations();
+        Annotation[][] annotations = _parameterAnnotations(m);
         for (int i = 0; i < argTypes.length; i++) {
             for (Annotation ann : annotations[i]) {
                 method.applyParamOverride(i, ann);
@@ -599,6 +791,17 @@ public class ResolvedTypeWithMembers
         return method;
     }
 
+    /**
+     * Helper method for accessing parameter annotations of given method or constructor;
+     * shared between all parameterizations of the declaring class, so MUST NOT
+     * be modified.
+     *
+     * @since 1.6
+     */
+    protected Annotation[][] _parameterAnnotations(Executable member) {
+        return ClassMembers.forClass(member.getDeclaringClass()).parameterAnnotations(member);
+    }
+
     protected boolean methodCanInherit(Annotation annotation) {
         AnnotationInclusion annotationInclusion = _annotationHandler.methodInclusion(annotation);
         if (annotationInclusion == AnnotationInclusion.INCLUDE_AND_INHERIT_IF_INHERITED) {
@@ -621,6 +824,39 @@ public class ResolvedTypeWithMembers
     /**********************************************************************
      */
 
+    /**
+     * Task for resolving a range of member methods, splitting range into
+     * sub-tasks if it is bigger than {@link #PARALLEL_TASK_SIZE}.
+     */
+    @SuppressWarnings("serial")
+    private final class MethodResolutionTask extends RecursiveAction
+    {
+        private final RawMethod[] _raw;
+        private final ResolvedMethod[] _resolved;
+        private final int _start, _end;
+
+        public MethodResolutionTask(RawMethod[] raw, ResolvedMethod[] resolved, int start, int end) {
+            _raw = raw;
+            _resolved = resolved;
+            _start = start;
+            _end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ((_end - _start) <= PARALLEL_TASK_SIZE) {
+                for (int i = _start; i < _end; ++i) {
+                    _resolved[i] = resolveMethod(_raw[i]);
+                }
+                return;
+            }
+            int mid = (_start + _end) >>> 1;
+            invokeAll(new MethodResolutionTask(_raw, _resolved, _start, mid),
+                    new MethodResolutionTask(_raw, _resolved, mid, _end));
+        }
+    }
+
     /**
      * Helper class we use to reduce number of calls to {@link AnnotationConfiguration};
      * mostly because determination may be expensive.
@@ -629,10 +865,19 @@ public class ResolvedTypeWithMembers
     {
         private final AnnotationConfiguration _annotationConfig;
 
-        private HashMap<Class<? extends Annotation>, AnnotationInclusion> _fieldInclusions;
-        private HashMap<Class<? extends Annotation>, AnnotationInclusion> _constructorInclusions;
-        private HashMap<Class<? extends Annotation>, AnnotationInclusion> _methodInclusions;
-        private HashMap<Class<? extends Annotation>, AnnotationInclusion> _parameterInclusions;
+        // Concurrent, since methods (and their parameters) may be resolved by parallel
+        // tasks (see MethodResolutionTask); inclusion lookups are idempotent.
+        // Null inclusions (possible with custom configurations) are not cached, but
+        // looked up again each time, and are treated same as inclusion.
+
+        private final ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion> _fieldInclusions
+            = new ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion>(8, 0.75f, 2);
+        private final ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion> _constructorInclusions
+            = new ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion>(8, 0.75f, 2);
+        private final ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion> _methodInclusions
+            = new ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion>(8, 0.75f, 2);
+        private final ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion> _parameterInclusions
+            = new ConcurrentHashMap<Class<? extends Annotation>, AnnotationInclusion>(8, 0.75f, 2);
 
         public AnnotationHandler(AnnotationConfiguration annotationConfig) {
             _annotationConfig = annotationConfig;
@@ -641,32 +886,28 @@ public class ResolvedTypeWithMembers
         public boolean includeConstructorAnnotation(Annotation ann)
         {
             Class<? extends Annotation> annType = ann.annotationType();
-            if (_constructorInclusions == null) {
-                _constructorInclusions = new HashMap<Class<? extends Annotation>, AnnotationInclusion>();
-            } else {
-                AnnotationInclusion incl = _constructorInclusions.get(annType);
-                if (incl != null) {
-                    return (incl != AnnotationInclusion.DONT_INCLUDE);
-                }
+            AnnotationInclusion incl = _constructorInclusions.get(annType);
+            if (incl != null) {
+                return (incl != AnnotationInclusion.DONT_INCLUDE);
+            }
+            incl = _annotationConfig.getInclusionForConstructor(annType);
+            if (incl != null) {
+                _constructorInclusions.put(annType, incl);
             }
-            AnnotationInclusion incl = _annotationConfig.getInclusionForConstructor(annType);
-            _constructorInclusions.put(annType, incl);
             return (incl != AnnotationInclusion.DONT_INCLUDE);
         }
         
         public boolean includeFieldAnnotation(Annotation ann)
         {
             Class<? extends Annotation> annType = ann.annotationType();
-            if (_fieldInclusions == null) {
-                _fieldInclusions = new HashMap<Class<? extends Annotation>, AnnotationInclusion>();
-            } else {
-                AnnotationInclusion incl = _fieldInclusions.get(annType);
-                if (incl != null) {
-                    return (incl != AnnotationInclusion.DONT_INCLUDE);
-                }
+            AnnotationInclusion incl = _fieldInclusions.get(annType);
+            if (incl != null) {
+                return (incl != AnnotationInclusion.DONT_INCLUDE);
+            }
+            incl = _annotationConfig.getInclusionForField(annType);
+            if (incl != null) {
+                _fieldInclusions.put(annType, incl);
             }
-            AnnotationInclusion incl = _annotationConfig.getInclusionForField(annType);
-            _fieldInclusions.put(annType, incl);
             return (incl != AnnotationInclusion.DONT_INCLUDE);
         }
 
@@ -678,16 +919,14 @@ public class ResolvedTypeWithMembers
         public AnnotationInclusion methodInclusion(Annotation ann)
         {
             Class<? extends Annotation> annType = ann.annotationType();
-            if (_methodInclusions == null) {
-                _methodInclusions = new HashMap<Class<? extends Annotation>, AnnotationInclusion>();
-            } else {
-                AnnotationInclusion incl = _methodInclusions.get(annType);
-                if (incl != null) {
-                    return incl;
-                }
+            AnnotationInclusion incl = _methodInclusions.get(annType);
+            if (incl != null) {
+                return incl;
+            }
+            incl = _annotationConfig.getInclusionForMethod(annType);
+            if (incl != null) {
+                _methodInclusions.put(annType, incl);
             }
-            AnnotationInclusion incl = _annotationConfig.getInclusionForMethod(annType);
-            _methodInclusions.put(annType, incl);
             return incl;
         }
 
@@ -699,16 +938,14 @@ public class ResolvedTypeWithMembers
         public AnnotationInclusion parameterInclusion(Annotation ann)
         {
             Class<? extends Annotation> annType = ann.annotationType();
-            if (_parameterInclusions == null) {
-                _parameterInclusions = new HashMap<Class<? extends Annotation>, AnnotationInclusion>();
-            } else {
-                AnnotationInclusion incl = _parameterInclusions.get(annType);
-                if (incl != null) {
-                    return incl;
-                }
+            AnnotationInclusion incl = _parameterInclusions.get(annType);
+            if (incl != null) {
+                return incl;
+            }
+            incl = _annotationConfig.getInclusionForParameter(annType);
+            if (incl != null) {
+                _parameterInclusions.put(annType, incl);
             }
-            AnnotationInclusion incl = _annotationConfig.getInclusionForParameter(annType);
-            _parameterInclusions.put(annType, incl);
             return incl;
         }
     }
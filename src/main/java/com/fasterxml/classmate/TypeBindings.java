@@ -13,7 +13,7 @@ public final class TypeBindings
 
     private final static ResolvedType[] NO_TYPES = new ResolvedType[0];
 
-    private final static TypeBindings EMPTY = new TypeBindings(NO_STRINGS, NO_TYPES, null);
+    private final static TypeBindings EMPTY = new TypeBindings(NO_STRINGS, NO_TYPES, null, null);
 
     /**
      * Array of type (type variable) names.
@@ -31,6 +31,15 @@ public final class TypeBindings
      * @since 2.3
      */
     private final String[] _unboundVariables;
+
+    /**
+     * Type parameter information of the class bindings were created for,
+     * if known; used for finding bound types of type variables declared by
+     * the class by index.
+     *
+     * @since 1.6
+     */
+    private final TypeParameters _parameters;
     
     private final int _hashCode;
     
@@ -40,7 +49,8 @@ public final class TypeBindings
     /**********************************************************************
      */
     
-    private TypeBindings(String[] names, ResolvedType[] types, String[] uvars)
+    private TypeBindings(String[] names, ResolvedType[] types, String[] uvars,
+            TypeParameters params)
     {
         _names = (names == null) ? NO_STRINGS : names;
         _types = (types == null) ? NO_TYPES : types;
@@ -49,9 +59,10 @@ public final class TypeBindings
         }
         int h = 1;
         for (int i = 0, len = _types.length; i < len; ++i) {
-            h += _types[i].hashCode();
+            h = (31 * h) + _types[i].hashCode();
         }
         _unboundVariables = uvars;
+        _parameters = params;
         _hashCode = h;
     }
 
@@ -75,24 +86,18 @@ public final class TypeBindings
         if (types == null) {
             types = NO_TYPES;
         }
-        TypeVariable<?>[] vars = erasedType.getTypeParameters();
-        String[] names;
-        if (vars == null || vars.length == 0) {
-            names = NO_STRINGS;
-        } else {
-            int len = vars.length;
-            names = new String[len];
-            for (int i = 0; i < len; ++i) {
-                names[i] = vars[i].getName();
-            }
-        }
+        // Type parameter information is shared by all bindings for the class
+        TypeParameters params = TypeParameters.forClass(erasedType);
         // Check here to give better error message
-        if (names.length != types.length) {
+        if (params.arity() != types.length) {
             throw new IllegalArgumentException("Can not create TypeBinding for class "+erasedType.getName()
                    +" with "+types.length+" type parameter"
-                   +((types.length == 1) ? "" : "s")+": class expects "+names.length);
+                   +((types.length == 1) ? "" : "s")+": class expects "+params.arity());
         }
-        return new TypeBindings(names, types, null);
+        if (types.length == 0) {
+            return EMPTY;
+        }
+        return new TypeBindings(params.names(), types, null, params);
     }
 
     /**
@@ -108,7 +113,7 @@ public final class TypeBindings
         String[] names =  (len == 0)
                 ? new String[1] : Arrays.copyOf(_unboundVariables, len+1);
         names[len] = name;
-        return new TypeBindings(_names, _types, names);
+        return new TypeBindings(_names, _types, names, _parameters);
     }
 
     /*
@@ -130,6 +135,25 @@ public final class TypeBindings
         return null;
     }
 
+    /**
+     * Find type bound to specified type variable, if there is one; returns bound type if so,
+     * null if not. For type variables declared by the class bindings were created
+     * for, lookup is by index, in constant time; for others (like type variables
+     * of generic methods) same as {@link #findBoundType(String)} with name of variable.
+     *
+     * @since 1.6
+     */
+    public ResolvedType findBoundType(TypeVariable<?> variable)
+    {
+        if (_parameters != null) {
+            int ix = _parameters.indexOf(variable);
+            if (ix >= 0) {
+                return _types[ix];
+            }
+        }
+        return findBoundType(variable.getName());
+    }
+
     public boolean isEmpty() {
         return (_types.length == 0);
     }
@@ -234,4 +258,17 @@ public final class TypeBindings
     protected ResolvedType[] typeParameterArray() {
         return _types;
     }
+
+    /**
+     * Factory method for re-constructing bindings with given names and types,
+     * without access to the class they were originally created for.
+     *
+     * @since 1.6
+     */
+    static TypeBindings create(String[] names, ResolvedType[] types) {
+        if (names.length == 0) {
+            return EMPTY;
+        }
+        return new TypeBindings(names, types, null, null);
+    }
 }
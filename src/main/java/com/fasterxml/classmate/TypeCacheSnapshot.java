@@ -0,0 +1,488 @@
+package com.fasterxml.classmate;
+
+import java.io.*;
+import java.util.*;
+
+import com.fasterxml.classmate.types.*;
+import com.fasterxml.classmate.util.ClassKey;
+
+/**
+ * Helper class that implements compact binary format used for storing graphs of
+ * resolved types (see {@link TypeResolver#writeCacheSnapshot} and
+ * {@link TypeResolver#readCacheSnapshot}), so that they can be re-constructed
+ * without having to resolve generic signatures again.
+ *<p>
+ * Format consists of a header (magic number, format version), a table of
+ * type nodes, and list of "root" nodes (types that were cached).
+ * Each node contains kind of type, name of the erased class, type bindings and
+ * references (indexes into node table) to related types: parent class and
+ * interfaces, array element type, or type that a self-reference refers to.
+ * Nodes are written so that all references, other than those from self-references,
+ * point to nodes written earlier; this allows construction of immutable type
+ * instances in a single pass, followed by patching of self-references.
+ *<p>
+ * Types are rebound to live classes by name, using class loader given when reading.
+ * Types that refer (directly or indirectly) to classes that can not be loaded
+ * are silently dropped.
+ *
+ * @since 1.6
+ */
+final class TypeCacheSnapshot
+{
+    private final static int MAGIC = 0x434D5453; // "CMTS"
+
+    private final static int FORMAT_VERSION = 1;
+
+    private final static byte KIND_OBJECT = 1;
+    private final static byte KIND_INTERFACE = 2;
+    private final static byte KIND_ARRAY = 3;
+    private final static byte KIND_RECURSIVE = 4;
+    private final static byte KIND_PRIMITIVE = 5;
+
+    private final static int NO_REF = -1;
+
+    private final static int[] NO_REFS = new int[0];
+
+    private final static Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>();
+    static {
+        for (ResolvedPrimitiveType type : ResolvedPrimitiveType.all()) {
+            PRIMITIVES.put(type.getErasedType().getName(), type.getErasedType());
+        }
+        PRIMITIVES.put("void", Void.TYPE);
+    }
+
+    private TypeCacheSnapshot() { }
+
+    /*
+    /**********************************************************************
+    /* Writing
+    /**********************************************************************
+     */
+
+    /**
+     * Method for writing snapshot of given types, and all types they refer to,
+     * to given stream. Stream is flushed but not closed.
+     */
+    public static void write(Collection<ResolvedType> roots, OutputStream out) throws IOException
+    {
+        Writer w = new Writer();
+        int[] rootRefs = new int[roots.size()];
+        int ix = 0;
+        for (ResolvedType root : roots) {
+            rootRefs[ix++] = w.visit(root);
+        }
+        w.visitSelfReferenced();
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(FORMAT_VERSION);
+        data.writeInt(w.nodes.size());
+        for (Node node : w.nodes) {
+            node.write(data);
+        }
+        data.writeInt(rootRefs.length);
+        for (int ref : rootRefs) {
+            data.writeInt(ref);
+        }
+        data.flush();
+    }
+
+    /**
+     * Helper object that traverses type graph to assign node indexes
+     */
+    private final static class Writer
+    {
+        final List<Node> nodes = new ArrayList<Node>();
+
+        /**
+         * Index of node for each type visited; {@link #NO_REF} for types
+         * being visited.
+         */
+        private final IdentityHashMap<ResolvedType, Integer> _indexes
+            = new IdentityHashMap<ResolvedType, Integer>();
+
+        /**
+         * Self-references constructed for back-references that were not
+         * self-references in the original graph (since parent class accessor
+         * resolves those)
+         */
+        private final IdentityHashMap<ResolvedType, ResolvedRecursiveType> _backRefs
+            = new IdentityHashMap<ResolvedType, ResolvedRecursiveType>();
+
+        /**
+         * Types referenced by self-references written, by index of self-reference node
+         */
+        private final Map<Integer, ResolvedType> _selfRefTargets = new HashMap<Integer, ResolvedType>();
+
+        public int visit(ResolvedType type)
+        {
+            Integer index = _indexes.get(type);
+            if (index != null) {
+                if (index.intValue() == NO_REF) { // cycle; need to write as self-reference
+                    return visit(_backReference(type));
+                }
+                return index.intValue();
+            }
+            if (type instanceof TypePlaceHolder) {
+                throw new IllegalArgumentException("Can not write snapshot of unresolved type placeholder");
+            }
+            _indexes.put(type, NO_REF);
+            Node node = new Node();
+            node.className = type.getErasedType().getName();
+            TypeBindings bindings = type.getTypeBindings();
+            int count = bindings.size();
+            node.bindingNames = new String[count];
+            node.bindingRefs = new int[count];
+            for (int i = 0; i < count; ++i) {
+                node.bindingNames[i] = bindings.getBoundName(i);
+                node.bindingRefs[i] = visit(bindings.getBoundType(i));
+            }
+            if (type instanceof ResolvedRecursiveType) {
+                node.kind = KIND_RECURSIVE; // target assigned once all types are visited
+            } else if (type.isArray()) {
+                node.kind = KIND_ARRAY;
+                node.element = visit(type.getArrayElementType());
+            } else if (type.isPrimitive()) {
+                node.kind = KIND_PRIMITIVE;
+            } else {
+                if (type.isInterface()) {
+                    node.kind = KIND_INTERFACE;
+                } else {
+                    node.kind = KIND_OBJECT;
+                    ResolvedType parent = type.getParentClass();
+                    if (parent != null) {
+                        node.parent = visit(parent);
+                    }
+                }
+                node.interfaces = _visitAll(type.getImplementedInterfaces());
+            }
+            index = nodes.size();
+            nodes.add(node);
+            _indexes.put(type, index);
+            if (node.kind == KIND_RECURSIVE) {
+                _selfRefTargets.put(index, type.getSelfReferencedType());
+            }
+            return index.intValue();
+        }
+
+        private int[] _visitAll(List<ResolvedType> types)
+        {
+            if (types.isEmpty()) {
+                return NO_REFS;
+            }
+            int[] refs = new int[types.size()];
+            for (int i = 0; i < refs.length; ++i) {
+                refs[i] = visit(types.get(i));
+            }
+            return refs;
+        }
+
+        /**
+         * Method called after visiting roots, to link self-references to types they
+         * refer to; including such types if not yet included (usually they are).
+         */
+        public void visitSelfReferenced()
+        {
+            // note: may add more nodes while iterating, so need to use index
+            for (int i = 0; i < nodes.size(); ++i) {
+                Node node = nodes.get(i);
+                if (node.kind == KIND_RECURSIVE) {
+                    ResolvedType target = _selfRefTargets.get(i);
+                    if (target == null) {
+                        throw new IllegalStateException("Unresolved self-reference to "+node.className);
+                    }
+                    node.target = visit(target);
+                }
+            }
+        }
+
+        private ResolvedRecursiveType _backReference(ResolvedType target)
+        {
+            ResolvedRecursiveType ref = _backRefs.get(target);
+            if (ref == null) {
+                ref = new ResolvedRecursiveType(target.getErasedType(), target.getTypeBindings());
+                ref.setReference(target);
+                _backRefs.put(target, ref);
+            }
+            return ref;
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Reading
+    /**********************************************************************
+     */
+
+    /**
+     * Method for reading a snapshot from given stream, and re-constructing root types
+     * it contains.
+     *
+     * @param in Stream to read snapshot from; should be buffered by caller, if necessary
+     * @param loader Class loader to use for loading classes by name
+     *
+     * @return Root types of the snapshot that could be re-constructed
+     */
+    public static List<ResolvedType> read(InputStream in, ClassLoader loader) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a type cache snapshot: invalid header");
+        }
+        int version = data.readUnsignedShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported type cache snapshot version "+version
+                    +" (expected "+FORMAT_VERSION+")");
+        }
+        final int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt type cache snapshot: negative node count");
+        }
+        Node[] nodes = new Node[count];
+        for (int i = 0; i < count; ++i) {
+            nodes[i] = Node.read(data, i, count);
+        }
+        int[] roots = new int[data.readInt()];
+        for (int i = 0; i < roots.length; ++i) {
+            roots[i] = _checkRef(data.readInt(), count);
+            if (roots[i] == NO_REF) {
+                throw new IOException("Corrupt type cache snapshot: missing root type reference");
+            }
+        }
+
+        // First: rebind classes
+        for (Node node : nodes) {
+            node.cls = _findClass(node.className, loader);
+        }
+        // then figure out which nodes depend on missing classes
+        boolean changed;
+        do {
+            changed = false;
+            for (Node node : nodes) {
+                if (node.cls != null && !node.dependenciesValid(nodes)) {
+                    node.cls = null;
+                    changed = true;
+                }
+            }
+        } while (changed);
+
+        // and then construct types, and link self-references
+        ResolvedType[] types = new ResolvedType[count];
+        for (int i = 0; i < count; ++i) {
+            if (nodes[i].cls != null) {
+                types[i] = nodes[i].construct(types);
+            }
+        }
+        for (int i = 0; i < count; ++i) {
+            if (types[i] instanceof ResolvedRecursiveType) {
+                ((ResolvedRecursiveType) types[i]).setReference(types[nodes[i].target]);
+            }
+        }
+        List<ResolvedType> result = new ArrayList<ResolvedType>(roots.length);
+        for (int root : roots) {
+            if (types[root] != null) {
+                result.add(types[root]);
+            }
+        }
+        return result;
+    }
+
+    private static Class<?> _findClass(String name, ClassLoader loader)
+    {
+        Class<?> cls = PRIMITIVES.get(name);
+        if (cls == null) {
+            try {
+                cls = Class.forName(name, false, loader);
+            } catch (ClassNotFoundException e) {
+                return null;
+            } catch (LinkageError e) {
+                return null;
+            }
+        }
+        return cls;
+    }
+
+    private static int _checkRef(int ref, int count) throws IOException
+    {
+        if (ref < NO_REF || ref >= count) {
+            throw new IOException("Corrupt type cache snapshot: invalid type reference "+ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Serializable node data: written from visited types, or read from snapshot
+     * before type is constructed
+     */
+    private final static class Node
+    {
+        byte kind;
+        String className;
+        String[] bindingNames;
+        int[] bindingRefs;
+        int parent = NO_REF;
+        int[] interfaces = NO_REFS;
+        int element = NO_REF;
+        int target = NO_REF;
+
+        /**
+         * Class type refers to, once located; null if not found, or if any of types
+         * this type depends on can not be constructed
+         */
+        Class<?> cls;
+
+        void write(DataOutputStream out) throws IOException
+        {
+            out.writeByte(kind);
+            out.writeUTF(className);
+            out.writeShort(bindingRefs.length);
+            for (int i = 0; i < bindingRefs.length; ++i) {
+                out.writeUTF(bindingNames[i]);
+                out.writeInt(bindingRefs[i]);
+            }
+            switch (kind) {
+            case KIND_RECURSIVE:
+                out.writeInt(target);
+                break;
+            case KIND_ARRAY:
+                out.writeInt(element);
+                break;
+            case KIND_OBJECT:
+                out.writeInt(parent);
+                _writeInterfaces(out);
+                break;
+            case KIND_INTERFACE:
+                _writeInterfaces(out);
+                break;
+            default: // primitives: nothing more to write
+            }
+        }
+
+        private void _writeInterfaces(DataOutputStream out) throws IOException
+        {
+            out.writeShort(interfaces.length);
+            for (int ref : interfaces) {
+                out.writeInt(ref);
+            }
+        }
+
+        static Node read(DataInputStream in, int index, int count) throws IOException
+        {
+            Node node = new Node();
+            node.kind = in.readByte();
+            node.className = in.readUTF();
+            int bindingCount = in.readUnsignedShort();
+            node.bindingNames = new String[bindingCount];
+            node.bindingRefs = new int[bindingCount];
+            for (int i = 0; i < bindingCount; ++i) {
+                node.bindingNames[i] = in.readUTF();
+                node.bindingRefs[i] = _checkEarlier(in.readInt(), index, false);
+            }
+            switch (node.kind) {
+            case KIND_RECURSIVE:
+                node.target = _checkRef(in.readInt(), count);
+                if (node.target == NO_REF) {
+                    throw new IOException("Corrupt type cache snapshot: self-reference without target");
+                }
+                break;
+            case KIND_ARRAY:
+                node.element = _checkEarlier(in.readInt(), index, false);
+                break;
+            case KIND_OBJECT:
+                node.parent = _checkEarlier(in.readInt(), index, true);
+                node.interfaces = _readInterfaces(in, index);
+                break;
+            case KIND_INTERFACE:
+                node.interfaces = _readInterfaces(in, index);
+                break;
+            case KIND_PRIMITIVE:
+                break;
+            default:
+                throw new IOException("Corrupt type cache snapshot: unknown type kind "+node.kind);
+            }
+            return node;
+        }
+
+        private static int[] _readInterfaces(DataInputStream in, int index) throws IOException
+        {
+            int[] interfaces = new int[in.readUnsignedShort()];
+            for (int i = 0; i < interfaces.length; ++i) {
+                interfaces[i] = _checkEarlier(in.readInt(), index, false);
+            }
+            return interfaces;
+        }
+
+        /**
+         * Helper method for verifying that reference points to a node before
+         * the referring one (or is "no reference", if allowed)
+         */
+        private static int _checkEarlier(int ref, int index, boolean allowNone) throws IOException
+        {
+            if (ref == NO_REF) {
+                if (!allowNone) {
+                    throw new IOException("Corrupt type cache snapshot: missing type reference from node "+index);
+                }
+            } else if (ref < 0 || ref >= index) {
+                throw new IOException("Corrupt type cache snapshot: invalid type reference "+ref
+                        +" from node "+index);
+            }
+            return ref;
+        }
+
+        boolean dependenciesValid(Node[] nodes)
+        {
+            for (int ref : bindingRefs) {
+                if (nodes[ref].cls == null) {
+                    return false;
+                }
+            }
+            for (int ref : interfaces) {
+                if (nodes[ref].cls == null) {
+                    return false;
+                }
+            }
+            return _valid(nodes, parent) && _valid(nodes, element) && _valid(nodes, target);
+        }
+
+        private static boolean _valid(Node[] nodes, int ref) {
+            return (ref == NO_REF) || (nodes[ref].cls != null);
+        }
+
+        ResolvedType construct(ResolvedType[] types) throws IOException
+        {
+            ResolvedType[] params = new ResolvedType[bindingRefs.length];
+            for (int i = 0; i < params.length; ++i) {
+                params[i] = types[bindingRefs[i]];
+            }
+            TypeBindings bindings = TypeBindings.create(bindingNames, params);
+            switch (kind) {
+            case KIND_RECURSIVE:
+                return new ResolvedRecursiveType(cls, bindings);
+            case KIND_ARRAY:
+                return new ResolvedArrayType(cls, bindings, types[element]);
+            case KIND_PRIMITIVE:
+                {
+                    ResolvedType type = TypeResolver._primitiveTypes.get(new ClassKey(cls));
+                    if (type == null) {
+                        throw new IOException("Corrupt type cache snapshot: "+className+" is not a primitive type");
+                    }
+                    return type;
+                }
+            case KIND_INTERFACE:
+                return new ResolvedInterfaceType(cls, bindings, _types(types, interfaces));
+            default:
+                return new ResolvedObjectType(cls, bindings,
+                        (parent == NO_REF) ? null : types[parent], _types(types, interfaces));
+            }
+        }
+
+        private static ResolvedType[] _types(ResolvedType[] types, int[] refs)
+        {
+            ResolvedType[] result = new ResolvedType[refs.length];
+            for (int i = 0; i < refs.length; ++i) {
+                result[i] = types[refs[i]];
+            }
+            return result;
+        }
+    }
+}
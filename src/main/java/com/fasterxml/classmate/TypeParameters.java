@@ -0,0 +1,133 @@
+package com.fasterxml.classmate;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.fasterxml.classmate.util.SafeClassValue;
+
+/**
+ * Container for information on type parameters (type variables) declared by
+ * a single class (names, bounds and arity), shared by all {@link TypeBindings}
+ * created for the class: avoids having to access (and copy) this information
+ * via reflection for each parameterization of the class, and allows finding
+ * index of a type variable in constant time, regardless of number of type
+ * parameters class declares.
+ *<p>
+ * Instances are kept using {@link SafeClassValue}, so that those for JDK
+ * classes do not pin the class loader of this library.
+ * Names are determined when constructed, but bounds only when first needed,
+ * since accessing them may fail (with {@link TypeNotPresentException} or
+ * {@link java.lang.reflect.MalformedParameterizedTypeException}) for classes
+ * whose bound types can not be loaded.
+ *
+ * @since 1.6
+ */
+final class TypeParameters
+{
+    private final static String[] NO_STRINGS = new String[0];
+
+    /**
+     * Maximum number of instances retained for JDK (and other loader-stable) classes
+     */
+    private final static int MAX_STABLE_INSTANCES = 500;
+
+    private final static SafeClassValue<TypeParameters> INSTANCES = new SafeClassValue<TypeParameters>(MAX_STABLE_INSTANCES) {
+        @Override
+        protected TypeParameters computeValue(Class<?> type) {
+            return new TypeParameters(type);
+        }
+    };
+
+    private final Class<?> _class;
+
+    /**
+     * Names of type variables, in declaration order
+     */
+    private final String[] _names;
+
+    private final TypeVariable<?>[] _variables;
+
+    /**
+     * First bounds of type variables, in declaration order; lazily resolved
+     */
+    private final AtomicReferenceArray<Type> _bounds;
+
+    /**
+     * Indexes of type variables, by name
+     */
+    private final HashMap<String, Integer> _indexes;
+
+    private TypeParameters(Class<?> cls)
+    {
+        _class = cls;
+        TypeVariable<?>[] vars = cls.getTypeParameters();
+        final int len = vars.length;
+        _variables = vars;
+        _names = (len == 0) ? NO_STRINGS : new String[len];
+        _bounds = new AtomicReferenceArray<Type>(len);
+        _indexes = new HashMap<String, Integer>();
+        for (int i = 0; i < len; ++i) {
+            _names[i] = vars[i].getName();
+            _indexes.put(_names[i], i);
+        }
+    }
+
+    public static TypeParameters forClass(Class<?> cls) {
+        return INSTANCES.get(cls);
+    }
+
+    public int arity() {
+        return _names.length;
+    }
+
+    /**
+     * Accessor for names of type variables, in declaration order: array
+     * is shared, and MUST NOT be modified.
+     */
+    public String[] names() {
+        return _names;
+    }
+
+    /**
+     * Accessor for the first bound of type variable with given index.
+     */
+    public Type firstBound(int index) {
+        Type bound = _bounds.get(index);
+        if (bound == null) { // race is fine, same bound gets resolved
+            bound = _variables[index].getBounds()[0];
+            _bounds.set(index, bound);
+        }
+        return bound;
+    }
+
+    /**
+     * Helper method for finding the first bound of given type variable;
+     * for variables declared by classes, without copying bounds.
+     */
+    public static Type firstBound(TypeVariable<?> variable)
+    {
+        if (variable.getGenericDeclaration() instanceof Class<?>) {
+            TypeParameters params = forClass((Class<?>) variable.getGenericDeclaration());
+            int ix = params.indexOf(variable);
+            if (ix >= 0) {
+                return params.firstBound(ix);
+            }
+        }
+        return variable.getBounds()[0];
+    }
+
+    /**
+     * Method for finding index of given type variable within type parameters
+     * of the class, if variable is declared by the class; or -1 if not.
+     */
+    public int indexOf(TypeVariable<?> variable)
+    {
+        if (variable.getGenericDeclaration() != _class) {
+            return -1;
+        }
+        Integer ix = _indexes.get(variable.getName());
+        return (ix == null) ? -1 : ix.intValue();
+    }
+}
@@ -1,15 +1,30 @@
 package com.fasterxml.classmate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import com.fasterxml.classmate.types.*;
+import com.fasterxml.classmate.util.CacheStats;
 import com.fasterxml.classmate.util.ClassKey;
 import com.fasterxml.classmate.util.ClassStack;
 import com.fasterxml.classmate.util.LRUTypeCache;
 import com.fasterxml.classmate.util.ResolvedTypeCache;
+import com.fasterxml.classmate.util.ResolvedTypeCacheMonitor;
 import com.fasterxml.classmate.util.ResolvedTypeKey;
+import com.fasterxml.classmate.util.SafeClassValue;
 
 /**
  * Object that is used for resolving generic type information of a class
@@ -47,6 +62,12 @@ public class TypeResolver implements Serializable
      * of other "standard" types...
      */
     protected final static HashMap<ClassKey, ResolvedType> _primitiveTypes;
+
+    /**
+     * Number of types {@link #_primitiveTypes} contains by default (primitives,
+     * <code>void</code> and <code>java.lang.Object</code>)
+     */
+    private final static int DEFAULT_PRIMITIVE_TYPE_COUNT;
     static {
         _primitiveTypes = new HashMap<ClassKey, ResolvedType>(16);
         for (ResolvedPrimitiveType type : ResolvedPrimitiveType.all()) {
@@ -57,8 +78,28 @@ public class TypeResolver implements Serializable
         // and at least java.lang.Object should be added too.
         _primitiveTypes.put(new ClassKey(Object.class), sJavaLangObject);
         // but most other types can be added dynamically
+        DEFAULT_PRIMITIVE_TYPE_COUNT = _primitiveTypes.size();
     }
 
+    /**
+     * Array classes for element (component) classes, to avoid having to construct
+     * array instances to find them.
+     */
+    private final static ClassValue<Class<?>> _arrayClasses = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> elementType) {
+            return Array.newInstance(elementType, 0).getClass();
+        }
+    };
+
+    /**
+     * Used for lazily constructing {@link #_internedTypes} without locking
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private final static AtomicReferenceFieldUpdater<TypeResolver, ConcurrentHashMap<ResolvedTypeKey, ResolvedType>> _internedTypesUpdater
+        = (AtomicReferenceFieldUpdater) AtomicReferenceFieldUpdater.newUpdater(TypeResolver.class,
+                ConcurrentHashMap.class, "_internedTypes");
+
     /*
     /**********************************************************************
     /* Caching
@@ -73,6 +114,74 @@ public class TypeResolver implements Serializable
      */
     protected final ResolvedTypeCache _resolvedTypes;
 
+    /**
+     * Whether resolved types for non-parameterized top-level classes (as passed to
+     * {@link #resolve(Type, Type...)} without type parameters) are to be kept
+     * in per-class slots (see {@link #_rawClassSlots}), to allow lookups without
+     * allocation or locking.
+     *
+     * @since 1.6
+     */
+    protected final boolean _cfgRawClassCache;
+
+    /**
+     * Per-class slots for resolved non-parameterized types, when enabled;
+     * lazily constructed (and reconstructed after deserialization).
+     * Values are attached to {@link Class} instances themselves
+     * (by {@link ClassValue}), and since each resolver has its own instance, cached
+     * types are not shared between resolvers. Slots are only used for classes
+     * that are not loader-stable (see {@link SafeClassValue#isLoaderStable}):
+     * slots attached to JDK classes would pin the class loader of this library,
+     * so those are resolved using the type cache instead.
+     * Slots are tagged with {@link ResolvedTypeCache#generation} of the type cache,
+     * so that clearing the type cache also invalidates them; and dropped when
+     * interned types are cleared.
+     *
+     * @since 1.6
+     */
+    protected transient volatile RawClassSlots _rawClassSlots;
+
+    /**
+     * Whether resolved types are to be interned (canonicalized), so that
+     * there is at most one instance of any given (cacheable) type per resolver.
+     *
+     * @since 1.6
+     */
+    protected final boolean _cfgInterning;
+
+    /**
+     * Canonical instances of types resolved by this resolver, when interning
+     * is enabled; lazily constructed (and reconstructed after deserialization,
+     * in which case canonical instances are not retained).
+     *
+     * @since 1.6
+     */
+    protected transient volatile ConcurrentHashMap<ResolvedTypeKey, ResolvedType> _internedTypes;
+
+    /**
+     * Maximum number of entries to keep in {@link #_genericTypeMemo}; 0 if
+     * memoization is disabled.
+     *
+     * @since 1.6
+     */
+    protected final int _cfgGenericTypeMemoSize;
+
+    /**
+     * Memo of results of {@link #resolve(TypeBindings, Type)} for generic types,
+     * keyed by identity of type and bindings, when enabled; lazily constructed.
+     *
+     * @since 1.6
+     */
+    protected transient volatile GenericTypeMemo _genericTypeMemo;
+
+    /**
+     * Asynchronous resolution requests (see {@link #resolveAsync}) in progress;
+     * lazily constructed.
+     *
+     * @since 1.6
+     */
+    protected transient volatile InFlightTasks<Type, ResolvedType> _inFlight;
+
     /*
     /**********************************************************************
     /* Life cycle
@@ -99,6 +208,160 @@ public class TypeResolver implements Serializable
      */
     public TypeResolver(ResolvedTypeCache typeCache) {
         _resolvedTypes = typeCache;
+        _cfgRawClassCache = false;
+        _cfgInterning = false;
+        _cfgGenericTypeMemoSize = 0;
+    }
+
+    /**
+     * Copy-constructor used by "fluent factory" methods.
+     *
+     * @since 1.6
+     */
+    protected TypeResolver(TypeResolver base, boolean rawClassCache, boolean interning,
+            int genericTypeMemoSize) {
+        _resolvedTypes = base._resolvedTypes;
+        _cfgRawClassCache = rawClassCache;
+        _cfgInterning = interning;
+        _cfgGenericTypeMemoSize = genericTypeMemoSize;
+    }
+
+    /**
+     * Constructor used for resolvers that {@link #resolveAll} uses for a single
+     * batch: uses given (overlay) cache, but shares canonical instances
+     * with the base resolver if interning is enabled.
+     */
+    private TypeResolver(TypeResolver base, ResolvedTypeCache batchCache) {
+        _resolvedTypes = batchCache;
+        _cfgRawClassCache = false;
+        _cfgInterning = base._cfgInterning;
+        _cfgGenericTypeMemoSize = 0;
+        if (_cfgInterning) {
+            _internedTypes = base._interned();
+        }
+    }
+
+    /**
+     * Fluent factory method for constructing resolver that shares type cache with
+     * this resolver, but has specified setting for per-class caching of resolved
+     * non-parameterized classes. When enabled, calls to {@link #resolve(Type, Type...)}
+     * with just a {@link Class} (and no type parameters) will, after the first call,
+     * return the resolved type from a slot attached to the class itself (via
+     * {@link ClassValue}), without allocating a cache key or accessing the
+     * shared cache.
+     *<p>
+     * Note that there is no limit to the number of classes for which slots
+     * are retained (other than the set of classes actually resolved), but slots
+     * do not prevent unloading of classes (or their class loaders).
+     * JDK classes (and others loaded by ancestors of the class loader of this
+     * library) are not given slots, but are resolved using the type cache.
+     *
+     * @since 1.6
+     */
+    public TypeResolver withRawClassCache(boolean state) {
+        if (state == _cfgRawClassCache) {
+            return this;
+        }
+        return new TypeResolver(this, state, _cfgInterning, _cfgGenericTypeMemoSize);
+    }
+
+    /**
+     * Fluent factory method for constructing resolver that shares type cache with
+     * this resolver, but has specified setting for interning of resolved types.
+     * When enabled, the resolver retains canonical instance of each type it
+     * resolves (including types of type parameters, supertypes and member
+     * types, as long as they do not contain self-references), and always
+     * returns that instance for equal types. This means that all equal types
+     * within type graphs built by the resolver are same instances, so that
+     * equality checks (both of types and of cache keys) are mostly reduced to
+     * identity comparisons; and that memory usage for large type models
+     * is reduced.
+     *<p>
+     * Note that unlike with type cache, there is no limit to the number of
+     * canonical instances retained: they are retained as long as the resolver
+     * is (or until {@link #clearInternedTypes()} is called). Canonical
+     * instances are specific to resolver; they are not shared with the resolver
+     * this method is called on.
+     *
+     * @since 1.6
+     */
+    public TypeResolver withInterning(boolean state) {
+        if (state == _cfgInterning) {
+            return this;
+        }
+        return new TypeResolver(this, _cfgRawClassCache, state, _cfgGenericTypeMemoSize);
+    }
+
+    /**
+     * Accessor for checking number of canonical type instances retained, if
+     * interning is enabled (see {@link #withInterning}); 0 if not enabled.
+     *
+     * @since 1.6
+     */
+    public int getInternedTypeCount() {
+        ConcurrentHashMap<ResolvedTypeKey, ResolvedType> interned = _internedTypes;
+        return (interned == null) ? 0 : interned.size();
+    }
+
+    /**
+     * Method for releasing all canonical type instances retained, if interning
+     * is enabled. Note that types resolved after clearing will not be same
+     * instances as ones resolved before clearing.
+     *
+     * @since 1.6
+     */
+    public void clearInternedTypes() {
+        ConcurrentHashMap<ResolvedTypeKey, ResolvedType> interned = _internedTypes;
+        if (interned != null) {
+            interned.clear();
+        }
+        // memoized results, and per-class slots, would otherwise still refer to earlier instances
+        _rawClassSlots = null;
+        GenericTypeMemo memo = _genericTypeMemo;
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    /**
+     * Fluent factory method for constructing resolver that shares type cache (and
+     * other configuration) with this resolver, but has specified setting for
+     * memoization of results of {@link #resolve(TypeBindings, Type)} for generic
+     * types ({@link ParameterizedType}s, {@link GenericArrayType}s, {@link TypeVariable}s
+     * and {@link WildcardType}s). When enabled, results are kept keyed by identity of
+     * both the type and the bindings, so that resolving same generic signature
+     * of a member (as done by {@link MemberResolver}) in the same context again
+     * returns previous result without having to traverse the signature.
+     * Since JDK returns same generic type instances for each member
+     * (and type bindings of cached types are also same instances), this
+     * avoids repeated work for members inherited by multiple types.
+     *<p>
+     * Memo is bounded: when it is full, a quarter of entries (an arbitrary
+     * sample, by hash order) is dropped to make room.
+     *
+     * @param maxEntries Maximum number of results to memoize; 0 to disable memoization
+     *
+     * @since 1.6
+     */
+    public TypeResolver withGenericTypeMemo(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Memo size can not be negative, was "+maxEntries);
+        }
+        if (maxEntries == _cfgGenericTypeMemoSize) {
+            return this;
+        }
+        return new TypeResolver(this, _cfgRawClassCache, _cfgInterning, maxEntries);
+    }
+
+    /**
+     * Accessor for checking number of results memoized, if memoization of generic
+     * types is enabled (see {@link #withGenericTypeMemo}); 0 if not enabled.
+     *
+     * @since 1.6
+     */
+    public int getGenericTypeMemoEntryCount() {
+        GenericTypeMemo memo = _genericTypeMemo;
+        return (memo == null) ? 0 : memo.size();
     }
 
     /*
@@ -131,6 +394,9 @@ public class TypeResolver implements Serializable
         if (type instanceof Class<?>) {
             bindings = TypeBindings.emptyBindings();
             if (noParams) {
+                if (_cfgRawClassCache) {
+                    return _fromRawClass((Class<?>) type);
+                }
                 return _fromClass(null, (Class<?>) type, bindings);
             }
             rawBase = (Class<?>) type;
@@ -173,11 +439,7 @@ public class TypeResolver implements Serializable
     public ResolvedArrayType arrayType(Type elementType)
     {
         ResolvedType resolvedElementType = resolve(TypeBindings.emptyBindings(), elementType);
-        // Arrays are cumbersome for some reason:
-        Object emptyArray = Array.newInstance(resolvedElementType.getErasedType(), 0);
-        // Should we try to use cache? It's bit tricky, so let's not bother yet
-        return new ResolvedArrayType(emptyArray.getClass(), TypeBindings.emptyBindings(),
-                resolvedElementType);
+        return _arrayType(_arrayClasses.get(resolvedElementType.getErasedType()), resolvedElementType);
     }
 
     /**
@@ -193,6 +455,20 @@ public class TypeResolver implements Serializable
      */
     public ResolvedType resolve(TypeBindings typeBindings, Type jdkType)
     {
+        // Classes and resolved types are fast to handle as is; others may be memoized
+        if ((_cfgGenericTypeMemoSize > 0)
+                && !(jdkType instanceof Class<?>) && !(jdkType instanceof ResolvedType)) {
+            GenericTypeMemo memo = _genericTypeMemo;
+            if (memo == null) { // race is fine, at worst a few initial results are not retained
+                _genericTypeMemo = memo = new GenericTypeMemo(_cfgGenericTypeMemoSize);
+            }
+            ResolvedType type = memo.find(jdkType, typeBindings);
+            if (type == null) {
+                type = _fromAny(null, jdkType, typeBindings);
+                memo.put(jdkType, typeBindings, type);
+            }
+            return type;
+        }
         return _fromAny(null, jdkType, typeBindings);
     }
 
@@ -300,12 +576,267 @@ public class TypeResolver implements Serializable
         return resolve(subtype, typeParams);
     }
 
+    /*
+    /**********************************************************************
+    /* Batch resolution
+    /**********************************************************************
+     */
+
+    /**
+     * Method for resolving multiple types at once; equivalent to calling
+     * {@link #resolve(Type, Type...)} for each type, but more efficient
+     * when types share supertypes (or type parameters), and especially so
+     * when there are more such types than the type cache can hold:
+     *<ul>
+     * <li>Same type instances given more than once are only resolved once
+     *  </li>
+     * <li>All types constructed during the batch (including supertypes) are kept
+     *   for its duration, so that shared parts of type hierarchies are only constructed
+     *   once, regardless of size of the type cache
+     *  </li>
+     * <li>Types constructed are added to the type cache using a single bulk
+     *   operation ({@link ResolvedTypeCache#putAll}) once the batch is complete
+     *  </li>
+     *</ul>
+     * Batch is resolved by the calling thread.
+     *
+     * @param types Types to resolve; any types accepted by {@link #resolve(Type, Type...)}
+     *
+     * @return Resolved types, in the same order as given types
+     *
+     * @since 1.6
+     */
+    public List<ResolvedType> resolveAll(Collection<? extends Type> types)
+    {
+        final int count = types.size();
+        final BatchTypeCache batchCache = new BatchTypeCache(_resolvedTypes, count);
+        final TypeResolver batchResolver = new TypeResolver(this, batchCache);
+        // identity is enough; JDK reuses generic type instances of members, and
+        // equal types from different sources are found from the batch cache
+        final Map<Type, ResolvedType> resolved = new IdentityHashMap<Type, ResolvedType>(count);
+        final List<ResolvedType> result = new ArrayList<ResolvedType>(count);
+        try {
+            for (Type type : types) {
+                ResolvedType rt = resolved.get(type);
+                if (rt == null) {
+                    rt = batchResolver.resolve(type);
+                    resolved.put(type, rt);
+                }
+                result.add(rt);
+            }
+        } finally {
+            // even if a type fails, ones constructed so far are fine to cache
+            batchCache.flush();
+        }
+        return result;
+    }
+
+    /*
+    /**********************************************************************
+    /* Asynchronous resolution
+    /**********************************************************************
+     */
+
+    /**
+     * Asynchronous variant of {@link #resolve(Type, Type...)} (without type parameters):
+     * resolution is done using given executor, unless type is already resolved,
+     * or per-class caching of non-parameterized classes is enabled (see
+     * {@link #withRawClassCache}) and has the type, in which case returned
+     * future is already completed. Type cache is only accessed by resolution
+     * itself, so that its statistics are not affected by asynchronous calls.
+     * If there is a request to resolve an equal type in progress, its result
+     * is shared, instead of resolving type again.
+     *<p>
+     * Each call returns a separate future, so that callers may cancel (or complete)
+     * theirs without affecting other callers; but note that doing so does not
+     * cancel resolution itself.
+     *
+     * @param type Type to resolve; any type accepted by {@link #resolve(Type, Type...)}
+     * @param executor Executor to use for resolution
+     *
+     * @return Future completed with resolved type, or exceptionally if resolution fails
+     *
+     * @since 1.6
+     */
+    public CompletableFuture<ResolvedType> resolveAsync(final Type type, Executor executor)
+    {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor can not be null");
+        }
+        if (type instanceof ResolvedType) {
+            return CompletableFuture.completedFuture((ResolvedType) type);
+        }
+        if ((type instanceof Class<?>) && _cfgRawClassCache) {
+            ResolvedType cached = _findRawClass((Class<?>) type);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        InFlightTasks<Type, ResolvedType> inFlight = _inFlight;
+        if (inFlight == null) { // race is fine, at worst a few initial requests are not shared
+            _inFlight = inFlight = new InFlightTasks<Type, ResolvedType>();
+        }
+        return inFlight.submit(type, new Callable<ResolvedType>() {
+            @Override
+            public ResolvedType call() {
+                return resolve(type);
+            }
+        }, executor);
+    }
+
+    /*
+    /**********************************************************************
+    /* Warm-up
+    /**********************************************************************
+     */
+
+    /**
+     * Method for pre-resolving given types (including their supertypes) in parallel,
+     * using given executor, so that resolved types are cached before they are needed.
+     * Method blocks until all types have been resolved (or failed).
+     *<p>
+     * Note that warm-up is only useful if the type cache used is large enough to hold
+     * types resolved (including supertypes).
+     *
+     * @param types Types to resolve; any types accepted by {@link #resolve(Type, Type...)}
+     * @param executor Executor to use for running resolution tasks
+     *
+     * @return Report of time it took to resolve each type, and of failures, if any
+     *
+     * @since 1.6
+     */
+    public WarmUpReport warmUp(Collection<? extends Type> types, Executor executor)
+        throws InterruptedException
+    {
+        return new WarmUpRunner<Type>() {
+            @Override
+            protected String describe(Type input) {
+                return typeName(input);
+            }
+
+            @Override
+            protected void warmUp(Type input) {
+                resolve(input);
+            }
+        }.run(types, executor);
+    }
+
+    /**
+     * Alternative to {@link #warmUp(Collection, Executor)} that takes names of
+     * classes to resolve, instead of types. Classes are loaded (but not initialized)
+     * using given class loader; failures to locate classes are included in the report.
+     *
+     * @param classNames Fully-qualified names of classes to resolve
+     * @param loader Class loader to use for loading classes
+     * @param executor Executor to use for running resolution tasks
+     *
+     * @since 1.6
+     */
+    public WarmUpReport warmUpClasses(Collection<String> classNames, final ClassLoader loader,
+            Executor executor)
+        throws InterruptedException
+    {
+        return new WarmUpRunner<String>() {
+            @Override
+            protected String describe(String input) {
+                return input;
+            }
+
+            @Override
+            protected void warmUp(String input) throws ClassNotFoundException {
+                resolve(Class.forName(input, false, loader));
+            }
+        }.run(classNames, executor);
+    }
+
+    /*
+    /**********************************************************************
+    /* Cache snapshots
+    /**********************************************************************
+     */
+
+    /**
+     * Method for writing a snapshot of all types currently in the type cache
+     * (as returned by {@link ResolvedTypeCache#contents}), including all types they refer to,
+     * into given stream using a compact binary format. Snapshot can then be
+     * read using {@link #readCacheSnapshot}, for example on startup of another
+     * JVM, to avoid having to resolve commonly used types again.
+     *<p>
+     * Stream is flushed but not closed.
+     *
+     * @return Number of cached types written
+     *
+     * @since 1.6
+     */
+    public int writeCacheSnapshot(OutputStream out) throws IOException
+    {
+        List<ResolvedType> types = _resolvedTypes.contents();
+        TypeCacheSnapshot.write(types, out);
+        return types.size();
+    }
+
+    /**
+     * Method for reading a snapshot written using {@link #writeCacheSnapshot}
+     * and adding types it contains to the type cache of this resolver.
+     * Classes are located by name using given class loader; types that refer to
+     * classes that can not be found (or loaded) are skipped.
+     *<p>
+     * Note that type information is not validated against classes loaded: caller
+     * is responsible for making sure snapshot was written using same versions of
+     * classes.
+     *
+     * @param in Stream to read snapshot from; should be buffered if necessary.
+     *    Stream is not closed.
+     * @param loader Class loader to use for loading classes
+     *
+     * @return Number of types added to the cache
+     *
+     * @since 1.6
+     */
+    public int readCacheSnapshot(InputStream in, ClassLoader loader) throws IOException
+    {
+        int count = 0;
+        for (ResolvedType type : TypeCacheSnapshot.read(in, loader)) {
+            ResolvedTypeKey key = _cacheKey(type);
+            if (key != null) {
+                _resolvedTypes.put(key, type);
+                ++count;
+            }
+        }
+        return count;
+    }
+
     /*
     /**********************************************************************
     /* Misc other methods
     /**********************************************************************
      */
 
+    /**
+     * Accessor for statistics of the type cache this resolver uses.
+     *
+     * @since 1.6
+     */
+    public CacheStats cacheStats() {
+        return _resolvedTypes.stats();
+    }
+
+    /**
+     * Method for registering an MBean that exposes statistics of the type cache this
+     * resolver uses, with the platform MBean server; see
+     * {@link ResolvedTypeCacheMonitor#register} for details.
+     *
+     * @param name Name to distinguish this resolver from others (used as the
+     *    <code>name</code> property of the object name)
+     *
+     * @return Name under which bean was registered (needed to unregister it)
+     *
+     * @since 1.6
+     */
+    public ObjectName registerCacheMBean(String name) throws JMException {
+        return ResolvedTypeCacheMonitor.register(_resolvedTypes, name);
+    }
+
     /**
      * Convenience method that can be used to checked whether given resolved type
      * (with erased type of <code>java.lang.Object</code>) is a placeholder
@@ -354,15 +885,23 @@ public class TypeResolver implements Serializable
 
     private ResolvedType _fromClass(ClassStack context, Class<?> rawType, TypeBindings typeBindings)
     {
-        // First: a primitive type perhaps?
-        ResolvedType type = _primitiveTypes.get(new ClassKey(rawType));
-        if (type != null) {
-            return type;
+        // First: a primitive type perhaps? To avoid constructing lookup key for
+        // other types, only check if types have been added to (or removed from) defaults
+        ResolvedType type;
+        if (rawType.isPrimitive() || (rawType == Object.class)
+                || (_primitiveTypes.size() != DEFAULT_PRIMITIVE_TYPE_COUNT)) {
+            type = _primitiveTypes.get(new ClassKey(rawType));
+            if (type != null) {
+                return type;
+            }
+        }
+        // Arrays are cached by element type (bindings are irrelevant)
+        if (rawType.isArray()) {
+            ResolvedType elementType = _fromAny(context, rawType.getComponentType(), typeBindings);
+            return _arrayType(rawType, elementType);
         }
         // Second: recursive reference?
-        if (context == null) {
-            context = new ClassStack(rawType);
-        } else {
+        if (context != null) {
             ClassStack prev = context.find(rawType);
             if (prev != null) {
                 // Self-reference: needs special handling, then...
@@ -370,25 +909,197 @@ public class TypeResolver implements Serializable
                 prev.addSelfReference(selfRef);
                 return selfRef;
             }
-            // no, can just add
-            context = context.child(rawType);
         }
 
-        // If not, already recently resolved?
+        // If not, already recently resolved? Can check without constructing
+        // a key (or stack frame), so that cache hits need not allocate anything
         ResolvedType[] typeParameters = typeBindings.typeParameterArray();
+        if (_cfgInterning) {
+            type = _findInterned(rawType, typeParameters);
+        } else {
+            type = _resolvedTypes.find(rawType, typeParameters);
+        }
+        if (type != null) {
+            return type;
+        }
+        // no, can just add
+        context = (context == null) ? new ClassStack(rawType) : context.child(rawType);
+
         ResolvedTypeKey key = _resolvedTypes.key(rawType, typeParameters);
         // 25-Oct-2015, tatu: one twist; if any TypePlaceHolders included, key will NOT be created,
         //   which means that caching should not be used (since type is mutable)
         if (key == null) {
             type = _constructType(context, rawType, typeBindings);
         } else {
+            long start = System.nanoTime();
+            type = _constructType(context, rawType, typeBindings);
+            _resolvedTypes.recordLoadTime(System.nanoTime() - start);
+            _resolvedTypes.put(key, type);
+            if (_cfgInterning) {
+                // note: self-references of a type that loses race still get
+                // resolved, which is harmless
+                ResolvedType old = _interned().putIfAbsent(key, type);
+                if (old != null) {
+                    type = old;
+                }
+            }
+        }
+        context.resolveSelfReferences(type);
+        return type;
+    }
+
+    /**
+     * Helper method for finding canonical instance of given type, when interning
+     * is enabled: either one already interned, or one found from type cache
+     * (which then becomes canonical instance).
+     */
+    private ResolvedType _findInterned(Class<?> rawType, ResolvedType[] typeParameters)
+    {
+        ResolvedTypeKey key = _resolvedTypes.key(rawType, typeParameters);
+        if (key == null) {
+            return null;
+        }
+        // With interning, canonical instance (if any) has precedence over cached one
+        ResolvedType type = _interned().get(key);
+        if (type == null) {
             type = _resolvedTypes.find(key);
-            if (type == null) {
-                type = _constructType(context, rawType, typeBindings);
+            if (type != null) {
+                ResolvedType old = _interned().putIfAbsent(key, type);
+                if (old != null) {
+                    type = old;
+                }
+            }
+        }
+        return type;
+    }
+
+    private ConcurrentHashMap<ResolvedTypeKey, ResolvedType> _interned()
+    {
+        ConcurrentHashMap<ResolvedTypeKey, ResolvedType> interned = _internedTypes;
+        if (interned == null) {
+            // Must not lose canonical instances, so only one map may get installed
+            interned = new ConcurrentHashMap<ResolvedTypeKey, ResolvedType>();
+            if (!_internedTypesUpdater.compareAndSet(this, null, interned)) {
+                interned = _internedTypes;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Helper method for finding (or constructing and caching) array type with
+     * given element type. Array types are cached using array class and, for
+     * parameterized innermost (non-array) element types, that element type as key;
+     * that is, key is same as that of the array class if innermost element type has
+     * no type parameters. Since array class determines number of dimensions, this is
+     * enough to distinguish between, say, <code>List&lt;String&gt;[][]</code> and
+     * <code>List&lt;Integer&gt;[][]</code> (which array element types themselves
+     * can not do, as array types are equal if their erased types are).
+     * Types with self-referential innermost element types are not cached, since they
+     * are not complete until resolution of the referenced type completes.
+     */
+    private ResolvedArrayType _arrayType(Class<?> arrayClass, ResolvedType elementType)
+    {
+        ResolvedType innermost = _innermostElementType(elementType);
+        if (innermost instanceof ResolvedRecursiveType) {
+            return new ResolvedArrayType(arrayClass, TypeBindings.emptyBindings(), elementType);
+        }
+        // Note: "no type parameters" also ensures cache lookup needs no allocation
+        ResolvedType[] keyParams = _arrayKeyParams(innermost);
+        ResolvedType type;
+        if (_cfgInterning) {
+            type = _findInterned(arrayClass, keyParams);
+        } else {
+            type = _resolvedTypes.find(arrayClass, keyParams);
+        }
+        if (type == null) {
+            type = new ResolvedArrayType(arrayClass, TypeBindings.emptyBindings(), elementType);
+            ResolvedTypeKey key = _resolvedTypes.key(arrayClass, keyParams);
+            if (key != null) { // null if element type is a placeholder
                 _resolvedTypes.put(key, type);
+                if (_cfgInterning) {
+                    ResolvedType old = _interned().putIfAbsent(key, type);
+                    if (old != null) {
+                        type = old;
+                    }
+                }
             }
         }
-        context.resolveSelfReferences(type);
+        return (ResolvedArrayType) type;
+    }
+
+    private static ResolvedType _innermostElementType(ResolvedType elementType)
+    {
+        ResolvedType nested;
+        while ((nested = elementType.getArrayElementType()) != null) {
+            elementType = nested;
+        }
+        return elementType;
+    }
+
+    private static ResolvedType[] _arrayKeyParams(ResolvedType innermost)
+    {
+        if ((innermost instanceof TypePlaceHolder) || !innermost.getTypeBindings().isEmpty()) {
+            return new ResolvedType[] { innermost };
+        }
+        return NO_TYPES;
+    }
+
+    /**
+     * Helper method for constructing key to use for caching given
+     * (fully resolved) type
+     */
+    private ResolvedTypeKey _cacheKey(ResolvedType type)
+    {
+        ResolvedType elementType = type.getArrayElementType();
+        if (elementType != null) {
+            return _resolvedTypes.key(type.getErasedType(),
+                    _arrayKeyParams(_innermostElementType(elementType)));
+        }
+        return _resolvedTypes.key(type.getErasedType(), type.getTypeBindings().typeParameterArray());
+    }
+
+    /**
+     * Method for finding already resolved non-parameterized top-level class from
+     * per-class slots, if any, without resolving it.
+     */
+    private ResolvedType _findRawClass(Class<?> rawType)
+    {
+        RawClassSlots slots = _rawClassSlots;
+        if (slots != null && !SafeClassValue.isLoaderStable(rawType)) {
+            RawClassEntry entry = slots.get(rawType).entry;
+            if (entry != null && entry.generation == _resolvedTypes.generation()) {
+                return entry.type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method called to resolve non-parameterized top-level class, when per-class
+     * slots are enabled.
+     */
+    private ResolvedType _fromRawClass(Class<?> rawType)
+    {
+        // slots attached to JDK classes would pin our class loader; use type cache instead
+        if (SafeClassValue.isLoaderStable(rawType)) {
+            return _fromClass(null, rawType, TypeBindings.emptyBindings());
+        }
+        RawClassSlots slots = _rawClassSlots;
+        if (slots == null) {
+            // Race is fine: at worst a few initial results are not retained
+            _rawClassSlots = slots = new RawClassSlots();
+        }
+        RawClassSlot slot = slots.get(rawType);
+        // Need to get generation before resolving, so that clearing during resolution
+        // invalidates the result
+        final int generation = _resolvedTypes.generation();
+        RawClassEntry entry = slot.entry;
+        if (entry != null && entry.generation == generation) {
+            return entry.type;
+        }
+        ResolvedType type = _fromClass(null, rawType, TypeBindings.emptyBindings());
+        slot.entry = new RawClassEntry(type, generation);
         return type;
     }
 
@@ -419,10 +1130,7 @@ public class TypeResolver implements Serializable
     private ResolvedType _constructType(ClassStack context, Class<?> rawType, TypeBindings typeBindings)
     {
         // Ok: no easy shortcut, let's figure out type of type...
-        if (rawType.isArray()) {
-            ResolvedType elementType = _fromAny(context, rawType.getComponentType(), typeBindings);
-            return new ResolvedArrayType(rawType, typeBindings, elementType);
-        }
+        // (note: array types are handled by _fromClass already)
         // Work-around/fix for [#33]: if the type has no type parameters, don't include
         // typeBindings in the ResolvedType
         if (!typeBindings.isEmpty() && rawType.getTypeParameters().length == 0) {
@@ -492,9 +1200,8 @@ public class TypeResolver implements Serializable
     private ResolvedType _fromArrayType(ClassStack context, GenericArrayType arrayType, TypeBindings typeBindings)
     {
         ResolvedType elementType = _fromAny(context, arrayType.getGenericComponentType(), typeBindings);
-        // Figuring out raw class for generic array is actually bit tricky...
-        Object emptyArray = Array.newInstance(elementType.getErasedType(), 0);
-        return new ResolvedArrayType(emptyArray.getClass(), typeBindings, elementType);
+        // Figuring out raw class for generic array is bit tricky; but can at least reuse it
+        return _arrayType(_arrayClasses.get(elementType.getErasedType()), elementType);
     }
 
     private ResolvedType _fromWildcard(ClassStack context, WildcardType wildType, TypeBindings typeBindings)
@@ -511,7 +1218,7 @@ public class TypeResolver implements Serializable
     {
         // ideally should find it via bindings:
         String name = variable.getName();
-        ResolvedType type = typeBindings.findBoundType(name);
+        ResolvedType type = typeBindings.findBoundType(variable);
 
         if (type != null) {
             return type;
@@ -528,8 +1235,7 @@ public class TypeResolver implements Serializable
         }
         typeBindings = typeBindings.withUnboundVariable(name);
 
-        Type[] bounds = variable.getBounds();
-        return _fromAny(context, bounds[0], typeBindings);
+        return _fromAny(context, TypeParameters.firstBound(variable), typeBindings);
     }
 
     /*
@@ -584,4 +1290,202 @@ public class TypeResolver implements Serializable
         }
         return true;
     }
+
+    /*
+    /**********************************************************************
+    /* Helper types
+    /**********************************************************************
+     */
+
+    /**
+     * Container for resolved type of a non-parameterized class; attached to the
+     * class via {@link RawClassSlots}.
+     */
+    protected final static class RawClassSlot
+    {
+        public volatile RawClassEntry entry;
+    }
+
+    /**
+     * Resolved type kept in a {@link RawClassSlot}, along with generation of the
+     * type cache it was resolved with.
+     */
+    protected final static class RawClassEntry
+    {
+        public final ResolvedType type;
+        public final int generation;
+
+        public RawClassEntry(ResolvedType type, int generation) {
+            this.type = type;
+            this.generation = generation;
+        }
+    }
+
+    protected final static class RawClassSlots extends ClassValue<RawClassSlot>
+    {
+        @Override
+        protected RawClassSlot computeValue(Class<?> type) {
+            return new RawClassSlot();
+        }
+    }
+
+    /**
+     * Cache used for a single call to {@link #resolveAll}: keeps all types
+     * constructed during the batch (in order of construction), consulting
+     * shared cache only for other types; and adds kept types to the shared
+     * cache when the batch is done. Not thread-safe, as batches are resolved
+     * by a single thread.
+     */
+    private final static class BatchTypeCache extends ResolvedTypeCache
+    {
+        private final ResolvedTypeCache _shared;
+
+        private final LinkedHashMap<ResolvedTypeKey, ResolvedType> _constructed;
+
+        /**
+         * Subset of {@link #_constructed} for non-parameterized types, to allow
+         * lookups (most common during resolution) without constructing a key
+         */
+        private final IdentityHashMap<Class<?>, ResolvedType> _constructedRaw;
+
+        BatchTypeCache(ResolvedTypeCache shared, int inputCount) {
+            _shared = shared;
+            // types usually have at least a supertype or two not resolved earlier
+            final int expected = Math.min(inputCount * 2, 4000);
+            _constructed = new LinkedHashMap<ResolvedTypeKey, ResolvedType>(expected);
+            _constructedRaw = new IdentityHashMap<Class<?>, ResolvedType>(expected);
+        }
+
+        @Override
+        public ResolvedType find(ResolvedTypeKey key) {
+            ResolvedType type = _constructed.get(key);
+            return (type == null) ? _shared.find(key) : type;
+        }
+
+        @Override
+        public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+            ResolvedType type;
+            if ((typeParameters == null) || (typeParameters.length == 0)) {
+                type = _constructedRaw.get(erasedType);
+            } else {
+                ResolvedTypeKey key = key(erasedType, typeParameters);
+                if (key == null) {
+                    return null;
+                }
+                type = _constructed.get(key);
+            }
+            return (type == null) ? _shared.find(erasedType, typeParameters) : type;
+        }
+
+        @Override
+        public int size() {
+            return _constructed.size();
+        }
+
+        @Override
+        public void put(ResolvedTypeKey key, ResolvedType type) {
+            _constructed.put(key, type);
+            Class<?> raw = type.getErasedType();
+            if (key.equals(key(raw))) {
+                _constructedRaw.put(raw, type);
+            }
+        }
+
+        @Override
+        public void recordLoadTime(long nanos) {
+            _shared.recordLoadTime(nanos);
+        }
+
+        public void flush() {
+            if (!_constructed.isEmpty()) {
+                _shared.putAll(_constructed);
+                _constructed.clear();
+                _constructedRaw.clear();
+            }
+        }
+    }
+
+    /**
+     * Bounded memo of results of resolving generic types in specific contexts;
+     * keys compare both type and bindings by identity.
+     */
+    protected final static class GenericTypeMemo
+    {
+        private final ConcurrentHashMap<MemoKey, ResolvedType> _map;
+
+        private final ReentrantLock _lock = new ReentrantLock();
+
+        private final int _maxEntries;
+
+        public GenericTypeMemo(int maxEntries) {
+            _map = new ConcurrentHashMap<MemoKey, ResolvedType>(Math.min(64, maxEntries), 0.8f, 4);
+            _maxEntries = maxEntries;
+        }
+
+        public ResolvedType find(Type type, TypeBindings bindings) {
+            return _map.get(new MemoKey(type, bindings));
+        }
+
+        public void put(Type type, TypeBindings bindings, ResolvedType result) {
+            if (_map.size() >= _maxEntries) {
+                _trim();
+            }
+            _map.put(new MemoKey(type, bindings), result);
+        }
+
+        /**
+         * Helper method for dropping a quarter of entries, instead of all of them,
+         * so that memo stays mostly warm. Keys are in hash order of identity hash codes,
+         * so entries dropped are effectively a random sample. Only one thread trims
+         * at a time; others just add their entries (so that maximum size may be
+         * briefly exceeded).
+         */
+        private void _trim() {
+            if (!_lock.tryLock()) {
+                return;
+            }
+            try {
+                int toRemove = _map.size() - _maxEntries + Math.max(1, _maxEntries / 4);
+                Iterator<MemoKey> it = _map.keySet().iterator();
+                for (; (toRemove > 0) && it.hasNext(); --toRemove) {
+                    it.next();
+                    it.remove();
+                }
+            } finally {
+                _lock.unlock();
+            }
+        }
+
+        public int size() {
+            return _map.size();
+        }
+
+        public void clear() {
+            _map.clear();
+        }
+    }
+
+    private final static class MemoKey
+    {
+        private final Type _type;
+        private final TypeBindings _bindings;
+        private final int _hashCode;
+
+        MemoKey(Type type, TypeBindings bindings) {
+            _type = type;
+            _bindings = bindings;
+            _hashCode = System.identityHashCode(type) * 31 + System.identityHashCode(bindings);
+        }
+
+        @Override
+        public int hashCode() { return _hashCode; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof MemoKey)) return false;
+            MemoKey other = (MemoKey) o;
+            return (other._type == _type) && (other._bindings == _bindings);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package com.fasterxml.classmate;
+
+import java.util.*;
+
+/**
+ * Result of "warming up" a resolver (see {@link TypeResolver#warmUp} and
+ * {@link MemberResolver#warmUp}): contains time it took to resolve
+ * each of the types requested, as well as failures for types that
+ * could not be resolved (or, when given by name, located).
+ *<p>
+ * Each input (type or class name) has its own {@link Entry}, in the order inputs
+ * were given in, even if the same input was given more than once;
+ * inputs are identified by their names ({@link Class#getName()} for classes,
+ * {@link java.lang.reflect.Type#toString()} for other types).
+ *
+ * @since 1.6
+ */
+public class WarmUpReport
+{
+    /**
+     * Result of warming up for a single input.
+     */
+    public static class Entry
+    {
+        protected final int _index;
+
+        protected final String _name;
+
+        protected final long _time;
+
+        protected final Throwable _failure;
+
+        public Entry(int index, String name, long time, Throwable failure)
+        {
+            _index = index;
+            _name = name;
+            _time = time;
+            _failure = failure;
+        }
+
+        /**
+         * @return Index of the input in the collection of inputs
+         */
+        public int getIndex() { return _index; }
+
+        public String getName() { return _name; }
+
+        /**
+         * @return Time (in nanoseconds) it took to resolve the type, if successful;
+         *    0 if not
+         */
+        public long getTime() { return _time; }
+
+        /**
+         * @return Problem encountered, if any; null if resolved successfully
+         */
+        public Throwable getFailure() { return _failure; }
+
+        public boolean isResolved() { return _failure == null; }
+
+        @Override
+        public String toString() {
+            if (_failure == null) {
+                return String.format("#%d %s: %.1f msec", _index, _name, _time / 1000000.0);
+            }
+            return String.format("#%d %s: failed (%s)", _index, _name, _failure);
+        }
+    }
+
+    protected final List<Entry> _entries;
+
+    protected final Map<String, Long> _timings;
+
+    protected final Map<String, Throwable> _failures;
+
+    protected final long _elapsedTime;
+
+    public WarmUpReport(List<Entry> entries, long elapsedTime)
+    {
+        _entries = Collections.unmodifiableList(new ArrayList<Entry>(entries));
+        Map<String, Long> timings = new LinkedHashMap<String, Long>();
+        Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+        for (Entry entry : entries) {
+            if (entry.isResolved()) {
+                timings.put(entry.getName(), entry.getTime());
+            } else {
+                failures.put(entry.getName(), entry.getFailure());
+            }
+        }
+        _timings = Collections.unmodifiableMap(timings);
+        _failures = Collections.unmodifiableMap(failures);
+        _elapsedTime = elapsedTime;
+    }
+
+    /**
+     * Accessor for results of all inputs, in the order inputs were given in.
+     */
+    public List<Entry> getEntries() {
+        return _entries;
+    }
+
+    /**
+     * Accessor for time (in nanoseconds) it took to resolve each of the types
+     * that were successfully resolved, keyed by type name. If the same type
+     * was given more than once, only the time of its last occurrence is
+     * included: use {@link #getEntries()} to access all of them.
+     */
+    public Map<String, Long> getTimings() {
+        return _timings;
+    }
+
+    /**
+     * Accessor for problems encountered, keyed by type name. If the same input
+     * failed more than once, only the last failure is included:
+     * use {@link #getEntries()} to access all of them.
+     */
+    public Map<String, Throwable> getFailures() {
+        return _failures;
+    }
+
+    /**
+     * @return Number of inputs successfully resolved
+     */
+    public int getResolvedCount() {
+        int count = 0;
+        for (Entry entry : _entries) {
+            if (entry.isResolved()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of inputs that could not be resolved
+     */
+    public int getFailedCount() {
+        return _entries.size() - getResolvedCount();
+    }
+
+    /**
+     * @return Wall-clock time (in nanoseconds) from start of warm-up until
+     *    all types were processed
+     */
+    public long getElapsedTime() {
+        return _elapsedTime;
+    }
+
+    /**
+     * @return Sum of times (in nanoseconds) it took to resolve types; with parallel
+     *    execution, usually more than {@link #getElapsedTime()}
+     */
+    public long getTotalTime() {
+        long total = 0L;
+        for (Entry entry : _entries) {
+            total += entry.getTime();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[WarmUpReport: %d resolved, %d failed, elapsed %.1f msec, total %.1f msec]",
+                getResolvedCount(), getFailedCount(),
+                _elapsedTime / 1000000.0, getTotalTime() / 1000000.0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fasterxml.classmate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Helper class used for running warm-up tasks (one per input) on an
+ * {@link Executor}, timing them and collecting results into a
+ * {@link WarmUpReport}.
+ *
+ * @since 1.6
+ */
+abstract class WarmUpRunner<T>
+{
+    /**
+     * Method called to get name to use for given input in report.
+     */
+    protected abstract String describe(T input);
+
+    /**
+     * Method called (on an executor thread) to do actual work for given input.
+     */
+    protected abstract void warmUp(T input) throws Exception;
+
+    /**
+     * Method for running warm-up tasks for all given inputs using given executor,
+     * and waiting until all of them have completed.
+     */
+    public WarmUpReport run(Collection<? extends T> inputs, Executor executor)
+        throws InterruptedException
+    {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor can not be null");
+        }
+        final long start = System.nanoTime();
+        final List<T> list = new ArrayList<T>(inputs);
+        final int count = list.size();
+        CompletionService<Long> completion = new ExecutorCompletionService<Long>(executor);
+        List<Future<Long>> futures = new ArrayList<Future<Long>>(count);
+        for (final T input : list) {
+            futures.add(completion.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    long taskStart = System.nanoTime();
+                    warmUp(input);
+                    return System.nanoTime() - taskStart;
+                }
+            }));
+        }
+        for (int i = 0; i < count; ++i) {
+            completion.take();
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        // All done; collect results in input order, one entry per input
+        List<WarmUpReport.Entry> entries = new ArrayList<WarmUpReport.Entry>(count);
+        for (int i = 0; i < count; ++i) {
+            String name = describe(list.get(i));
+            long time = 0L;
+            Throwable failure = null;
+            try {
+                time = futures.get(i).get();
+            } catch (ExecutionException e) {
+                failure = (e.getCause() == null) ? e : e.getCause();
+            } catch (CancellationException e) {
+                failure = e;
+            }
+            entries.add(new WarmUpReport.Entry(i, name, time, failure));
+        }
+        return new WarmUpReport(entries, elapsed);
+    }
+
+    /**
+     * Helper method for finding name to use for given type in reports.
+     */
+    protected static String typeName(java.lang.reflect.Type type) {
+        if (type instanceof Class<?>) {
+            return ((Class<?>) type).getName();
+        }
+        return String.valueOf(type);
+    }
+}
@@ -0,0 +1,43 @@
+package com.fasterxml.classmate.types;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import com.fasterxml.classmate.members.RawMember;
+
+/**
+ * Unmodifiable list view of an array of raw members, as returned by accessors
+ * of resolved types. Member arrays (like {@link ResolvedObjectType#_memberFields})
+ * remain the source of members: view knows the array it was constructed for,
+ * so that accessors can check whether a cached view is still valid
+ * (that is, array has not been replaced) without locking.
+ *
+ * @since 1.6
+ */
+final class RawMemberList<T extends RawMember>
+    extends AbstractList<T>
+    implements RandomAccess
+{
+    private final T[] _members;
+
+    public RawMemberList(T[] members) {
+        _members = members;
+    }
+
+    /**
+     * Method for checking whether this is a view of given member array.
+     */
+    public boolean isViewOf(Object[] members) {
+        return _members == members;
+    }
+
+    @Override
+    public T get(int index) {
+        return _members[index];
+    }
+
+    @Override
+    public int size() {
+        return _members.length;
+    }
+}
@@ -17,12 +17,20 @@ public class ResolvedInterfaceType extends ResolvedType
     /**
      * Interfaces can have static final (constant) fields.
      */
-    protected RawField[] _constantFields;
+    protected volatile RawField[] _constantFields;
 
     /**
      * Interface methods are all public and abstract.
      */
-    protected RawMethod[] _memberMethods;
+    protected volatile RawMethod[] _memberMethods;
+
+    // Lazily constructed (unmodifiable) views of above; no locking used, since
+    // at worst members are gathered more than once, with equivalent results.
+    // Views are re-created if arrays are replaced.
+
+    private volatile RawMemberList<RawField> _constantFieldList;
+
+    private volatile RawMemberList<RawMethod> _memberMethodList;
     
     /*
     /**********************************************************************
@@ -93,28 +101,32 @@ public class ResolvedInterfaceType extends ResolvedType
      */
 
     @Override
-    public synchronized List<RawField> getStaticFields()
+    public List<RawField> getStaticFields()
     {
         // Interfaces can have static fields, but only as static constants...
-        if (_constantFields == null) {
-            _constantFields = _getFields(true);
+        RawField[] members = _constantFields;
+        if (members == null) {
+            _constantFields = members = _getFields(true);
         }
-        if (_constantFields.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawField> l = _constantFieldList;
+        if (l == null || !l.isViewOf(members)) {
+            _constantFieldList = l = new RawMemberList<RawField>(members);
         }
-        return Arrays.asList(_constantFields);
+        return l;
     }
 
     @Override
-    public synchronized List<RawMethod> getMemberMethods()
+    public List<RawMethod> getMemberMethods()
     {
-        if (_memberMethods == null) {
-            _memberMethods = _getMethods(false);
+        RawMethod[] members = _memberMethods;
+        if (members == null) {
+            _memberMethods = members = _getMethods(false);
         }
-        if (_memberMethods.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawMethod> l = _memberMethodList;
+        if (l == null || !l.isViewOf(members)) {
+            _memberMethodList = l = new RawMemberList<RawMethod>(members);
         }
-        return Arrays.asList(_memberMethods);
+        return l;
     }
     
     /*
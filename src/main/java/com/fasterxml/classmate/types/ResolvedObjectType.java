@@ -37,13 +37,31 @@ public class ResolvedObjectType extends ResolvedType
     /**
      * Constructors declared by the resolved Object class.
      */
-    protected RawConstructor[] _constructors;
+    protected volatile RawConstructor[] _constructors;
 
-    protected RawField[] _memberFields;
-    protected RawField[] _staticFields;
+    protected volatile RawField[] _memberFields;
+    protected volatile RawField[] _staticFields;
 
-    protected RawMethod[] _memberMethods;
-    protected RawMethod[] _staticMethods;
+    protected volatile RawMethod[] _memberMethods;
+    protected volatile RawMethod[] _staticMethods;
+
+    /*
+    /**********************************************************************
+    /* Lazily constructed (unmodifiable) views of raw members
+    /**********************************************************************
+     */
+
+    // Note: no locking used for lazy construction; at worst members are
+    // gathered more than once, with equivalent results. Arrays above are
+    // the source of members; views are re-created if arrays are replaced.
+
+    private volatile RawMemberList<RawConstructor> _constructorList;
+
+    private volatile RawMemberList<RawField> _memberFieldList;
+    private volatile RawMemberList<RawField> _staticFieldList;
+
+    private volatile RawMemberList<RawMethod> _memberMethodList;
+    private volatile RawMemberList<RawMethod> _staticMethodList;
     
     /*
     /**********************************************************************
@@ -182,63 +200,73 @@ public class ResolvedObjectType extends ResolvedType
      */
 
     @Override
-    public synchronized List<RawField> getMemberFields()
+    public List<RawField> getMemberFields()
     {
-        if (_memberFields == null) {
-            _memberFields = _getFields(false);
+        RawField[] members = _memberFields;
+        if (members == null) {
+            _memberFields = members = _getFields(false);
         }
-        if (_memberFields.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawField> l = _memberFieldList;
+        if (l == null || !l.isViewOf(members)) {
+            _memberFieldList = l = new RawMemberList<RawField>(members);
         }
-        return Arrays.asList(_memberFields);
+        return l;
     }
 
     @Override
-    public synchronized List<RawField> getStaticFields()
+    public List<RawField> getStaticFields()
     {
-        if (_staticFields == null) {
-            _staticFields = _getFields(true);
+        RawField[] members = _staticFields;
+        if (members == null) {
+            _staticFields = members = _getFields(true);
         }
-        if (_staticFields.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawField> l = _staticFieldList;
+        if (l == null || !l.isViewOf(members)) {
+            _staticFieldList = l = new RawMemberList<RawField>(members);
         }
-        return Arrays.asList(_staticFields);
+        return l;
     }
 
     @Override
-    public synchronized List<RawMethod> getMemberMethods()
+    public List<RawMethod> getMemberMethods()
     {
-        if (_memberMethods == null) {
-            _memberMethods = _getMethods(false);
+        RawMethod[] members = _memberMethods;
+        if (members == null) {
+            _memberMethods = members = _getMethods(false);
         }
-        if (_memberMethods.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawMethod> l = _memberMethodList;
+        if (l == null || !l.isViewOf(members)) {
+            _memberMethodList = l = new RawMemberList<RawMethod>(members);
         }
-        return Arrays.asList(_memberMethods);
-    } 
+        return l;
+    }
 
     @Override
-    public synchronized List<RawMethod> getStaticMethods()
+    public List<RawMethod> getStaticMethods()
     {
-        if (_staticMethods == null) {
-            _staticMethods = _getMethods(true);
+        RawMethod[] members = _staticMethods;
+        if (members == null) {
+            _staticMethods = members = _getMethods(true);
         }
-        if (_staticMethods.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawMethod> l = _staticMethodList;
+        if (l == null || !l.isViewOf(members)) {
+            _staticMethodList = l = new RawMemberList<RawMethod>(members);
         }
-        return Arrays.asList(_staticMethods);
-    } 
+        return l;
+    }
 
     @Override
-    public synchronized List<RawConstructor> getConstructors()
+    public List<RawConstructor> getConstructors()
     {
-        if (_constructors == null) {
-            _constructors = _getConstructors();
+        RawConstructor[] members = _constructors;
+        if (members == null) {
+            _constructors = members = _getConstructors();
         }
-        if (_constructors.length == 0) {
-            return Collections.emptyList();
+        RawMemberList<RawConstructor> l = _constructorList;
+        if (l == null || !l.isViewOf(members)) {
+            _constructorList = l = new RawMemberList<RawConstructor>(members);
         }
-        return Arrays.asList(_constructors);
+        return l;
     }
 
     /*
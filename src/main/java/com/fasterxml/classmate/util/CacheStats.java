@@ -0,0 +1,93 @@
+package com.fasterxml.classmate.util;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of statistics collected by a {@link ResolvedTypeCache};
+ * accessed using {@link ResolvedTypeCache#stats()}.
+ *
+ * @since 1.6
+ */
+public final class CacheStats implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final long _hitCount;
+    private final long _missCount;
+    private final long _putCount;
+    private final long _evictionCount;
+    private final long _totalLoadTime;
+
+    public CacheStats(long hitCount, long missCount, long putCount,
+            long evictionCount, long totalLoadTime)
+    {
+        _hitCount = hitCount;
+        _missCount = missCount;
+        _putCount = putCount;
+        _evictionCount = evictionCount;
+        _totalLoadTime = totalLoadTime;
+    }
+
+    /**
+     * Number of lookups that found a cached type.
+     */
+    public long hitCount() { return _hitCount; }
+
+    /**
+     * Number of lookups that did not find a cached type.
+     */
+    public long missCount() { return _missCount; }
+
+    /**
+     * Number of types added (or re-added) to the cache.
+     */
+    public long putCount() { return _putCount; }
+
+    /**
+     * Number of entries removed from the cache to make room for other entries.
+     */
+    public long evictionCount() { return _evictionCount; }
+
+    /**
+     * Total time (in nanoseconds) spent constructing types on cache misses, as
+     * reported by {@link com.fasterxml.classmate.TypeResolver}. Note that since
+     * construction of a type includes resolution of its supertypes, time spent on
+     * supertypes not yet cached is included in time of the subtype as well.
+     */
+    public long totalLoadTime() { return _totalLoadTime; }
+
+    public long requestCount() { return _hitCount + _missCount; }
+
+    /**
+     * Ratio of lookups that found a cached type; 1.0 if there have been no lookups.
+     */
+    public double hitRate() {
+        long requests = requestCount();
+        return (requests == 0L) ? 1.0 : ((double) _hitCount / requests);
+    }
+
+    /**
+     * Average time (in nanoseconds) spent constructing a type on cache miss.
+     */
+    public double averageLoadPenalty() {
+        return (_putCount == 0L) ? 0.0 : ((double) _totalLoadTime / _putCount);
+    }
+
+    /**
+     * Method for constructing snapshot that contains sums of counts of this
+     * and given snapshot.
+     */
+    public CacheStats plus(CacheStats other) {
+        return new CacheStats(_hitCount + other._hitCount,
+                _missCount + other._missCount,
+                _putCount + other._putCount,
+                _evictionCount + other._evictionCount,
+                _totalLoadTime + other._totalLoadTime);
+    }
+
+    @Override
+    public String toString() {
+        return "[CacheStats: hits="+_hitCount+", misses="+_missCount+", puts="+_putCount
+                +", evictions="+_evictionCount+", totalLoadTime="+_totalLoadTime+"]";
+    }
+}
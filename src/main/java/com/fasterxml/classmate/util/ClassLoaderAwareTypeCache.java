@@ -0,0 +1,370 @@
+package com.fasterxml.classmate.util;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeBindings;
+
+/**
+ * {@link ResolvedTypeCache} implementation that keeps entries in separate partitions
+ * based on class loader that "owns" them, so that entries (which hold strong references
+ * to {@link Class} instances) do not prevent class loaders from being unloaded;
+ * this is needed with long-lived resolvers in containers that redeploy applications.
+ *<p>
+ * Owner of an entry is the most specific class loader of all classes the cache key
+ * refers to (main type and type parameters, recursively). Entries owned by the
+ * bootstrap loader, or by the loader that loaded this library (or its ancestors)
+ * are kept in a single shared partition, since these loaders can not go away
+ * before the cache does. All other entries are kept in per-loader partitions that
+ * are only (strongly) reachable from classes of that loader: partition is attached
+ * to classes using {@link ClassValue}, and only weakly referenced from the cache itself.
+ * So once a class loader becomes unreachable, its partition (and entries) will be
+ * garbage collected along with it.
+ *<p>
+ * Keys that refer to classes from unrelated class loaders (neither being ancestor
+ * of the other) have no single owner, and are not cached at all.
+ *<p>
+ * Maximum number of entries is applied separately to each partition.
+ *<p>
+ * Like all {@link ResolvedTypeCache} implementations,
+ * access is thread-safe and caller need not (and should not) use additional synchronization.
+ *
+ * @since 1.6
+ */
+public class ClassLoaderAwareTypeCache extends ResolvedTypeCache
+{
+    private static final long serialVersionUID = 1L;
+
+    protected final int _maxEntries;
+
+    /**
+     * Partition used for entries owned by class loaders that can not be unloaded
+     * before this cache
+     */
+    protected final transient ResolvedTypeCache _shared;
+
+    /**
+     * Class loaders that can not be unloaded before this cache, that is, loader
+     * of this class and its ancestors (bootstrap loader is implied)
+     */
+    protected final transient Set<ClassLoader> _stableLoaders;
+
+    /**
+     * Partitions for other loaders; only weakly referenced, to allow unloading.
+     * Access needs to be guarded by {@link #_partitionLock}.
+     */
+    protected final transient WeakHashMap<ClassLoader, WeakReference<ResolvedTypeCache>> _partitions;
+
+    /**
+     * Lock used instead of <code>synchronized</code> for {@link #_partitions},
+     * so that virtual threads waiting for it do not pin their carrier threads.
+     */
+    protected final transient ReentrantLock _partitionLock;
+
+    /**
+     * Per-class links to partitions of their loaders; this is what keeps partitions
+     * reachable.
+     */
+    protected final transient PartitionLinks _links;
+
+    public ClassLoaderAwareTypeCache(int maxEntries)
+    {
+        _maxEntries = maxEntries;
+        _shared = _createPartition();
+        _stableLoaders = Collections.newSetFromMap(new IdentityHashMap<ClassLoader, Boolean>());
+        for (ClassLoader l = getClass().getClassLoader(); l != null; l = l.getParent()) {
+            _stableLoaders.add(l);
+        }
+        _partitions = new WeakHashMap<ClassLoader, WeakReference<ResolvedTypeCache>>();
+        _partitionLock = new ReentrantLock();
+        _links = new PartitionLinks();
+    }
+
+    // For JDK serialization: have to re-construct partitions since they are NOT serialized
+    Object readResolve() {
+        return new ClassLoaderAwareTypeCache(_maxEntries);
+    }
+
+    /**
+     * Overridable factory method for constructing cache used for a single partition.
+     */
+    protected ResolvedTypeCache _createPartition() {
+        return new ConcurrentLRUTypeCache(_maxEntries);
+    }
+
+    /*
+    /**********************************************************************
+    /* ResolvedTypeCache implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public ResolvedType find(ResolvedTypeKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        ResolvedTypeCache partition = _partitionFor(key);
+        ResolvedType type = (partition == null) ? null : partition.find(key);
+        _stats.recordLookup(type);
+        return type;
+    }
+
+    @Override
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        if (_hasPlaceholders(typeParameters)) {
+            return null;
+        }
+        ResolvedTypeCache partition = _partitionFor(erasedType, typeParameters);
+        ResolvedType type = (partition == null) ? null : partition.find(erasedType, typeParameters);
+        _stats.recordLookup(type);
+        return type;
+    }
+
+    @Override
+    public int size() {
+        int size = _shared.size();
+        _partitionLock.lock();
+        try {
+            for (WeakReference<ResolvedTypeCache> ref : _partitions.values()) {
+                ResolvedTypeCache partition = ref.get();
+                if (partition != null) {
+                    size += partition.size();
+                }
+            }
+        } finally {
+            _partitionLock.unlock();
+        }
+        return size;
+    }
+
+    @Override
+    public void put(ResolvedTypeKey key, ResolvedType type) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        ResolvedTypeCache partition = _partitionFor(key);
+        if (partition != null) {
+            partition.put(key, type);
+            _stats.recordPut();
+        }
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        List<ResolvedType> result = _shared.contents();
+        for (ResolvedTypeCache partition : _livePartitions()) {
+            result.addAll(partition.contents());
+        }
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        _shared.clear();
+        for (ResolvedTypeCache partition : _livePartitions()) {
+            partition.clear();
+        }
+        _markCleared();
+    }
+
+    /*
+    /**********************************************************************
+    /* Extended API
+    /**********************************************************************
+     */
+
+    /**
+     * Statistics of lookups and additions are tracked for the cache as a whole;
+     * evictions are counted by (and summed over) partitions, but only for partitions
+     * still alive.
+     */
+    @Override
+    public CacheStats stats()
+    {
+        CacheStats own = _stats.snapshot();
+        long evictions = _shared.stats().evictionCount();
+        _partitionLock.lock();
+        try {
+            for (WeakReference<ResolvedTypeCache> ref : _partitions.values()) {
+                ResolvedTypeCache partition = ref.get();
+                if (partition != null) {
+                    evictions += partition.stats().evictionCount();
+                }
+            }
+        } finally {
+            _partitionLock.unlock();
+        }
+        return new CacheStats(own.hitCount(), own.missCount(), own.putCount(),
+                evictions, own.totalLoadTime());
+    }
+
+    /**
+     * Accessor for number of live per-loader partitions (not including the shared one).
+     */
+    public int partitionCount() {
+        int count = 0;
+        _partitionLock.lock();
+        try {
+            for (WeakReference<ResolvedTypeCache> ref : _partitions.values()) {
+                if (ref.get() != null) {
+                    ++count;
+                }
+            }
+        } finally {
+            _partitionLock.unlock();
+        }
+        return count;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    /**
+     * @return Partition to use for given key, if any; null if key can not be cached
+     */
+    protected ResolvedTypeCache _partitionFor(ResolvedTypeKey key) {
+        return _partitionFor(key.erasedType(), key.typeParameters());
+    }
+
+    /**
+     * @since 1.6
+     */
+    protected ResolvedTypeCache _partitionFor(Class<?> erasedType, ResolvedType[] params)
+    {
+        // Note: owner is passed along (and returned) as a class, to avoid allocation
+        Class<?> owner = _findOwner(erasedType, null);
+        if (params != null) {
+            for (int i = 0, len = params.length; (i < len) && (owner != NO_OWNER); ++i) {
+                owner = _findOwner(params[i], owner);
+            }
+        }
+        if (owner == NO_OWNER) {
+            return null;
+        }
+        if (owner == null) {
+            return _shared;
+        }
+        return _links.get(owner);
+    }
+
+    private Class<?> _findOwner(ResolvedType type, Class<?> owner)
+    {
+        owner = _findOwner(type.getErasedType(), owner);
+        if (owner == NO_OWNER) {
+            return owner;
+        }
+        ResolvedType elem = type.getArrayElementType();
+        if (elem != null) {
+            return _findOwner(elem, owner);
+        }
+        // Self-references have same owner as the type referenced, so no need to check
+        if (type.getSelfReferencedType() == null) {
+            TypeBindings bindings = type.getTypeBindings();
+            for (int i = 0, len = bindings.size(); (i < len) && (owner != NO_OWNER); ++i) {
+                owner = _findOwner(bindings.getBoundType(i), owner);
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * @param owner Class of the most specific non-stable loader seen so far, if any
+     *
+     * @return Class of the most specific non-stable loader, including given class;
+     *    null if none seen yet; or {@link #NO_OWNER} if class was loaded by a loader
+     *    not related to that of current owner
+     */
+    private Class<?> _findOwner(Class<?> cls, Class<?> owner)
+    {
+        ClassLoader loader = cls.getClassLoader();
+        if (loader == null || _stableLoaders.contains(loader)) {
+            return owner;
+        }
+        if (owner == null) { // first unstable loader seen
+            return cls;
+        }
+        ClassLoader ownerLoader = owner.getClassLoader();
+        if (loader == ownerLoader || _isAncestor(loader, ownerLoader)) {
+            return owner;
+        }
+        if (_isAncestor(ownerLoader, loader)) { // more specific loader
+            return cls;
+        }
+        return NO_OWNER;
+    }
+
+    private static boolean _isAncestor(ClassLoader ancestor, ClassLoader loader)
+    {
+        for (ClassLoader l = loader.getParent(); l != null; l = l.getParent()) {
+            if (l == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected List<ResolvedTypeCache> _livePartitions()
+    {
+        List<ResolvedTypeCache> result = new ArrayList<ResolvedTypeCache>();
+        _partitionLock.lock();
+        try {
+            for (WeakReference<ResolvedTypeCache> ref : _partitions.values()) {
+                ResolvedTypeCache partition = ref.get();
+                if (partition != null) {
+                    result.add(partition);
+                }
+            }
+        } finally {
+            _partitionLock.unlock();
+        }
+        return result;
+    }
+
+    protected ResolvedTypeCache _partitionForLoader(ClassLoader loader)
+    {
+        _partitionLock.lock();
+        try {
+            WeakReference<ResolvedTypeCache> ref = _partitions.get(loader);
+            ResolvedTypeCache partition = (ref == null) ? null : ref.get();
+            if (partition == null) {
+                partition = _createPartition();
+                _partitions.put(loader, new WeakReference<ResolvedTypeCache>(partition));
+            }
+            return partition;
+        } finally {
+            _partitionLock.unlock();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    /**
+     * Marker class used to indicate that a key refers to classes from unrelated
+     * class loaders, and so has no owner.
+     */
+    private final static class NoOwner { }
+
+    private final static Class<?> NO_OWNER = NoOwner.class;
+
+    /**
+     * Links classes to partitions of their class loaders; values are held by
+     * classes themselves, and keep partitions alive as long as any class with
+     * cached entries is.
+     */
+    protected final class PartitionLinks extends ClassValue<ResolvedTypeCache>
+    {
+        @Override
+        protected ResolvedTypeCache computeValue(Class<?> type) {
+            return _partitionForLoader(type.getClassLoader());
+        }
+    }
+}
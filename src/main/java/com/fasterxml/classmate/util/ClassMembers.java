@@ -0,0 +1,200 @@
+package com.fasterxml.classmate.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Container for reflection information of a single (erased) class, shared by
+ * all resolved types (parameterizations) of that class: declared non-synthetic
+ * fields, methods and constructors (split into static and non-static ones),
+ * as well as generic parameter types and parameter annotations of methods
+ * and constructors.
+ *<p>
+ * Besides avoiding repeated calls to methods like {@link Class#getDeclaredMethods()}
+ * (which return fresh copies of all members on each call), this also allows
+ * information that JDK caches per member instance (like generic signatures
+ * and annotations) to be reused, since the same member instances are
+ * returned for all parameterizations.
+ *<p>
+ * Instances are kept using {@link SafeClassValue}: attached to classes
+ * themselves, except for JDK classes (and others that outlive this library),
+ * for which a bounded number of instances is retained, so that
+ * the class loader of this library is not pinned by them. All information is lazily
+ * constructed; instances are thread-safe. Arrays returned are shared and
+ * MUST NOT be modified by callers.
+ *
+ * @since 1.6
+ */
+public final class ClassMembers
+{
+    private final static Field[] NO_FIELDS = new Field[0];
+    private final static Method[] NO_METHODS = new Method[0];
+    private final static Constructor<?>[] NO_CONSTRUCTORS = new Constructor<?>[0];
+
+    /**
+     * Maximum number of instances retained for JDK (and other loader-stable) classes
+     */
+    private final static int MAX_STABLE_INSTANCES = 500;
+
+    private final static SafeClassValue<ClassMembers> INSTANCES = new SafeClassValue<ClassMembers>(MAX_STABLE_INSTANCES) {
+        @Override
+        protected ClassMembers computeValue(Class<?> type) {
+            return new ClassMembers(type);
+        }
+    };
+
+    private final Class<?> _class;
+
+    // Lazily constructed; races are fine as results are equivalent
+
+    private volatile Field[] _memberFields, _staticFields;
+
+    private volatile Method[] _memberMethods, _staticMethods;
+
+    private volatile Constructor<?>[] _constructors;
+
+    /**
+     * Generic parameter types and parameter annotations of methods and
+     * constructors, lazily constructed as requested
+     */
+    private final ConcurrentHashMap<Member, Parameters> _parameters
+        = new ConcurrentHashMap<Member, Parameters>(16, 0.75f, 1);
+
+    private ClassMembers(Class<?> cls) {
+        _class = cls;
+    }
+
+    /**
+     * Accessor for getting (shared) instance for given class.
+     */
+    public static ClassMembers forClass(Class<?> cls) {
+        return INSTANCES.get(cls);
+    }
+
+    /*
+    /**********************************************************************
+    /* Accessors for members
+    /**********************************************************************
+     */
+
+    /**
+     * @param statics Whether to return static fields (true) or member fields (false)
+     */
+    public Field[] fields(boolean statics)
+    {
+        Field[] result = statics ? _staticFields : _memberFields;
+        if (result == null) {
+            List<Field> members = new ArrayList<Field>();
+            List<Field> staticMembers = new ArrayList<Field>();
+            for (Field f : _class.getDeclaredFields()) {
+                // Only skip synthetic fields, which should not really be exposed
+                if (!f.isSynthetic()) {
+                    if (Modifier.isStatic(f.getModifiers())) {
+                        staticMembers.add(f);
+                    } else {
+                        members.add(f);
+                    }
+                }
+            }
+            _memberFields = members.isEmpty() ? NO_FIELDS : members.toArray(new Field[members.size()]);
+            _staticFields = staticMembers.isEmpty() ? NO_FIELDS : staticMembers.toArray(new Field[staticMembers.size()]);
+            result = statics ? _staticFields : _memberFields;
+        }
+        return result;
+    }
+
+    /**
+     * @param statics Whether to return static methods (true) or member methods (false)
+     */
+    public Method[] methods(boolean statics)
+    {
+        Method[] result = statics ? _staticMethods : _memberMethods;
+        if (result == null) {
+            List<Method> members = new ArrayList<Method>();
+            List<Method> staticMembers = new ArrayList<Method>();
+            for (Method m : _class.getDeclaredMethods()) {
+                // Only skip synthetic methods, which should not really be exposed
+                if (!m.isSynthetic()) {
+                    if (Modifier.isStatic(m.getModifiers())) {
+                        staticMembers.add(m);
+                    } else {
+                        members.add(m);
+                    }
+                }
+            }
+            _memberMethods = members.isEmpty() ? NO_METHODS : members.toArray(new Method[members.size()]);
+            _staticMethods = staticMembers.isEmpty() ? NO_METHODS : staticMembers.toArray(new Method[staticMembers.size()]);
+            result = statics ? _staticMethods : _memberMethods;
+        }
+        return result;
+    }
+
+    public Constructor<?>[] constructors()
+    {
+        Constructor<?>[] result = _constructors;
+        if (result == null) {
+            List<Constructor<?>> ctors = new ArrayList<Constructor<?>>();
+            for (Constructor<?> c : _class.getDeclaredConstructors()) {
+                // Only skip synthetic constructors, which should not really be exposed
+                if (!c.isSynthetic()) {
+                    ctors.add(c);
+                }
+            }
+            _constructors = result = ctors.isEmpty() ? NO_CONSTRUCTORS
+                    : ctors.toArray(new Constructor<?>[ctors.size()]);
+        }
+        return result;
+    }
+
+    /*
+    /**********************************************************************
+    /* Accessors for parameter information
+    /**********************************************************************
+     */
+
+    /**
+     * Accessor for generic parameter types of given method or constructor,
+     * which needs to be declared by the class this instance is for.
+     */
+    public Type[] genericParameterTypes(Executable member) {
+        return _parameters(member).genericTypes;
+    }
+
+    /**
+     * Accessor for parameter annotations of given method or constructor,
+     * which needs to be declared by the class this instance is for.
+     */
+    public Annotation[][] parameterAnnotations(Executable member) {
+        return _parameters(member).annotations;
+    }
+
+    private Parameters _parameters(Executable member)
+    {
+        Parameters params = _parameters.get(member);
+        if (params == null) {
+            if (member.getDeclaringClass() != _class) {
+                throw new IllegalArgumentException("Member "+member+" not declared by "+_class.getName());
+            }
+            params = new Parameters(member.getGenericParameterTypes(), member.getParameterAnnotations());
+            Parameters old = _parameters.putIfAbsent(member, params);
+            if (old != null) {
+                params = old;
+            }
+        }
+        return params;
+    }
+
+    private final static class Parameters
+    {
+        final Type[] genericTypes;
+        final Annotation[][] annotations;
+
+        Parameters(Type[] t, Annotation[][] a) {
+            genericTypes = t;
+            annotations = a;
+        }
+    }
+}
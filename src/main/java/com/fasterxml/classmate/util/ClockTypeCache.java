@@ -0,0 +1,249 @@
+package com.fasterxml.classmate.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.classmate.ResolvedType;
+
+/**
+ * {@link ResolvedTypeCache} implementation that, like {@link ConcurrentTypeCache},
+ * uses {@link ConcurrentHashMap} for lock-free lookups, but instead of clearing
+ * all entries when maximum size is reached, evicts entries one at a time
+ * using the "CLOCK" (second chance) algorithm: each lookup marks the entry as
+ * referenced, and when room is needed for a new entry, the clock hand sweeps
+ * over entries, clearing reference marks, until it finds one not referenced
+ * since the last sweep; that entry is then replaced.
+ *<p>
+ * This avoids the latency spike of {@link ConcurrentTypeCache} (where all threads
+ * need to re-resolve all types after the cache is cleared), while keeping read
+ * cost close to that of a plain {@link ConcurrentHashMap} lookup. Insertions
+ * are serialized with a lock, but they only occur on cache misses.
+ *<p>
+ * Number of evicted entries is available via {@link #evictionCount()}, to help
+ * with sizing the cache.
+ *<p>
+ * Like all {@link ResolvedTypeCache} implementations,
+ * access is thread-safe and caller need not (and should not) use additional synchronization.
+ *
+ * @see ConcurrentTypeCache
+ *
+ * @since 1.6
+ */
+public class ClockTypeCache extends ResolvedTypeCache
+{
+    private static final long serialVersionUID = 1L;
+
+    protected final int _maxEntries;
+
+    protected final transient ConcurrentHashMap<ResolvedTypeKey, Entry> _map;
+
+    /**
+     * Lock used for serializing modifications (but not lookups)
+     */
+    private final transient ReentrantLock _writeLock;
+
+    /**
+     * Entries in insertion slot order; swept over by the clock hand.
+     * Only accessed while holding {@link #_writeLock}.
+     */
+    private final transient Entry[] _ring;
+
+    /**
+     * Number of slots of {@link #_ring} in use; only accessed while holding
+     * {@link #_writeLock}.
+     */
+    private transient int _used;
+
+    /**
+     * Index of the next slot to consider for eviction; only accessed while holding
+     * {@link #_writeLock}.
+     */
+    private transient int _hand;
+
+    public ClockTypeCache(int maxEntries)
+    {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum entry count must be positive, was "+maxEntries);
+        }
+        _maxEntries = maxEntries;
+        _map = new ConcurrentHashMap<ResolvedTypeKey, Entry>(maxEntries, 0.8f, 4);
+        _writeLock = new ReentrantLock();
+        _ring = new Entry[maxEntries];
+    }
+
+    // For JDK serialization: have to re-construct backing Map since it is NOT serialized
+    Object readResolve() {
+        return new ClockTypeCache(_maxEntries);
+    }
+
+    /*
+    /**********************************************************************
+    /* ResolvedTypeCache implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public ResolvedType find(ResolvedTypeKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        return _find(key);
+    }
+
+    @Override
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        KeyProbe probe = KeyProbe.acquire(erasedType, typeParameters);
+        if (probe == null) {
+            return null;
+        }
+        try {
+            return _find(probe);
+        } finally {
+            probe.release();
+        }
+    }
+
+    // Note: key may also be a KeyProbe
+    private ResolvedType _find(Object key) {
+        Entry entry = _map.get(key);
+        if (entry == null) {
+            _stats.recordMiss();
+            return null;
+        }
+        _stats.recordHit();
+        // Avoid needless writes (and cache line invalidation) for hot entries
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public int size() {
+        return _map.size();
+    }
+
+    @Override
+    public void put(ResolvedTypeKey key, ResolvedType type) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        _writeLock.lock();
+        try {
+            Entry old = _map.get(key);
+            int slot;
+            if (old != null) { // replacement, can reuse slot
+                slot = old.slot;
+            } else if (_used < _maxEntries) {
+                slot = _used++;
+            } else {
+                slot = _evictOne();
+            }
+            Entry entry = new Entry(key, type, slot);
+            _ring[slot] = entry;
+            _map.put(key, entry);
+            _stats.recordPut();
+        } finally {
+            _writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        List<ResolvedType> result = new ArrayList<ResolvedType>(_map.size());
+        for (Entry entry : _map.values()) {
+            result.add(entry.value);
+        }
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        _writeLock.lock();
+        try {
+            _map.clear();
+            Arrays.fill(_ring, null);
+            _used = 0;
+            _hand = 0;
+        } finally {
+            _writeLock.unlock();
+        }
+        _markCleared();
+    }
+
+    /*
+    /**********************************************************************
+    /* Extended API
+    /**********************************************************************
+     */
+
+    /**
+     * Accessor for finding number of entries evicted to make room for new entries,
+     * since construction of this cache.
+     *<p>
+     * Same as <code>stats().evictionCount()</code>.
+     */
+    public long evictionCount() {
+        return _stats.snapshot().evictionCount();
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    /**
+     * Method that will sweep over entries until finding one that has not
+     * been referenced since the previous sweep, remove it, and return
+     * slot that it used.
+     *<p>
+     * NOTE: caller must hold {@link #_writeLock}.
+     */
+    private int _evictOne()
+    {
+        final int len = _ring.length;
+        while (true) {
+            int slot = _hand;
+            if (++_hand == len) {
+                _hand = 0;
+            }
+            Entry entry = _ring[slot];
+            if (entry.referenced) {
+                entry.referenced = false;
+                continue;
+            }
+            _map.remove(entry.key, entry);
+            _ring[slot] = null;
+            _stats.recordEviction();
+            return slot;
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    private final static class Entry
+    {
+        final ResolvedTypeKey key;
+        final ResolvedType value;
+        final int slot;
+
+        /**
+         * Flag set on access, cleared by clock hand sweep
+         */
+        volatile boolean referenced;
+
+        Entry(ResolvedTypeKey k, ResolvedType v, int s) {
+            key = k;
+            value = v;
+            slot = s;
+        }
+    }
+}
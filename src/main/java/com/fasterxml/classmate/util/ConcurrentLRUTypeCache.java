@@ -0,0 +1,393 @@
+package com.fasterxml.classmate.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.classmate.ResolvedType;
+
+/**
+ * {@link ResolvedTypeCache} implementation that retains most recently accessed
+ * entries like {@link LRUTypeCache} does, but without making readers wait on a
+ * shared monitor. Lookups are served directly from a {@link ConcurrentHashMap};
+ * accesses are only <b>recorded</b> into small striped (per-thread-ish) buffers,
+ * and those buffers are replayed against the access-ordered eviction list in
+ * batches, by whichever thread manages to acquire the eviction lock without
+ * blocking.
+ *<p>
+ * Since read buffers are lossy (accesses are simply dropped when a stripe
+ * has no room left before the next replay), retention is only
+ * approximately least-recently-used; but this is good enough for the
+ * type cache, where hot types get accessed often enough to stay near the tail.
+ * Similarly, maximum size may be briefly exceeded under concurrent insertion,
+ * until the next drain of pending writes.
+ *<p>
+ * Like all {@link ResolvedTypeCache} implementations,
+ * access is thread-safe and caller need not (and should not) use additional synchronization.
+ *
+ * @see LRUTypeCache
+ * @see ConcurrentTypeCache
+ *
+ * @since 1.6
+ */
+public class ConcurrentLRUTypeCache extends ResolvedTypeCache
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of not-yet-replayed access records each read buffer
+     * stripe holds; needs to be a power of two.
+     */
+    private final static int READ_BUFFER_SIZE = 16;
+
+    private final static int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    /**
+     * Number of recorded but not yet replayed accesses in a stripe that
+     * triggers draining of read buffers.
+     */
+    private final static int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+    /**
+     * Upper limit for number of read buffer stripes; needs to be a power of two.
+     */
+    private final static int MAX_READ_BUFFERS = 64;
+
+    /**
+     * Number of pending writes after which draining is forced, even if
+     * no read buffer is full yet.
+     */
+    private final static int WRITE_BUFFER_DRAIN_THRESHOLD = 16;
+
+    protected final int _maxEntries;
+
+    protected final transient ConcurrentHashMap<ResolvedTypeKey, Node> _map;
+
+    /**
+     * Lock that guards modifications to the access-ordered list; never
+     * waited on by readers, only tried. Package-private for tests.
+     */
+    final transient ReentrantLock _evictionLock;
+
+    /**
+     * Sentinel of the circular, doubly-linked access-order list: <code>_head.next</code>
+     * is the least recently used entry, <code>_head.prev</code> most recently used one.
+     * Only accessed while holding {@link #_evictionLock}.
+     */
+    private final transient Node _head;
+
+    private final transient ReadBuffer[] _readBuffers;
+
+    private final transient int _readBufferMask;
+
+    /**
+     * Nodes added to the map, but not yet reflected in the access-order list;
+     * counted by {@link #_pendingWrites}.
+     */
+    private final transient ConcurrentLinkedQueue<Node> _writeBuffer;
+
+    /**
+     * Nodes replaced in the map by other nodes for the same key, but possibly
+     * still linked in the access-order list. Kept separate from added nodes
+     * since a node may be replaced before its addition has been drained; these
+     * are not counted as pending writes.
+     */
+    private final transient ConcurrentLinkedQueue<Node> _retiredBuffer;
+
+    private final transient AtomicLong _pendingWrites;
+
+    public ConcurrentLRUTypeCache(int maxEntries)
+    {
+        _maxEntries = maxEntries;
+        _map = new ConcurrentHashMap<ResolvedTypeKey, Node>(maxEntries, 0.8f, 4);
+        _evictionLock = new ReentrantLock();
+        _head = new Node(null, null);
+        _head.prev = _head;
+        _head.next = _head;
+        int stripes = _stripeCount(Runtime.getRuntime().availableProcessors());
+        _readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; ++i) {
+            _readBuffers[i] = new ReadBuffer();
+        }
+        _readBufferMask = stripes - 1;
+        _writeBuffer = new ConcurrentLinkedQueue<Node>();
+        _retiredBuffer = new ConcurrentLinkedQueue<Node>();
+        _pendingWrites = new AtomicLong();
+    }
+
+    // For JDK serialization: have to re-construct backing Map since it is NOT serialized
+    Object readResolve() {
+        return new ConcurrentLRUTypeCache(_maxEntries);
+    }
+
+    private static int _stripeCount(int cpus)
+    {
+        // Let's aim at a few stripes per core, to keep collisions between threads rare
+        int count = 1;
+        while (count < (cpus * 4) && count < MAX_READ_BUFFERS) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    /*
+    /**********************************************************************
+    /* ResolvedTypeCache implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public ResolvedType find(ResolvedTypeKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        return _find(key);
+    }
+
+    @Override
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        KeyProbe probe = KeyProbe.acquire(erasedType, typeParameters);
+        if (probe == null) {
+            return null;
+        }
+        try {
+            return _find(probe);
+        } finally {
+            probe.release();
+        }
+    }
+
+    // Note: key may also be a KeyProbe
+    private ResolvedType _find(Object key) {
+        Node node = _map.get(key);
+        if (node == null) {
+            _stats.recordMiss();
+            return null;
+        }
+        _stats.recordHit();
+        _recordRead(node);
+        return node.value;
+    }
+
+    @Override
+    public int size() {
+        return _map.size();
+    }
+
+    @Override
+    public void put(ResolvedTypeKey key, ResolvedType type) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        Node node = new Node(key, type);
+        Node old = _map.put(key, node);
+        if (old != null) {
+            old.retired = true;
+            _retiredBuffer.add(old);
+        }
+        _writeBuffer.add(node);
+        _pendingWrites.incrementAndGet();
+        _stats.recordPut();
+        // Writes only occur on cache misses, so it's fine to eagerly try to
+        // apply them (and evict as necessary)
+        _tryDrain();
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        List<ResolvedType> result = new ArrayList<ResolvedType>(_map.size());
+        for (Node node : _map.values()) {
+            result.add(node.value);
+        }
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        _evictionLock.lock();
+        try {
+            // Apply pending writes first so that all entries are linked...
+            _drainReads();
+            _drainWrites();
+            // ... and then remove them one by one: entries added concurrently may remain
+            for (Node node = _head.next; node != _head; node = _head.next) {
+                _unlink(node);
+                _map.remove(node.key, node);
+            }
+        } finally {
+            _evictionLock.unlock();
+        }
+        _markCleared();
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    private void _recordRead(Node node)
+    {
+        // Thread id is stable and cheap to get; good enough for spreading threads over stripes
+        int h = (int) Thread.currentThread().getId();
+        h ^= (h >>> 16);
+        ReadBuffer buffer = _readBuffers[((h * 0x9E3779B9) >>> 16) & _readBufferMask];
+        long writes = buffer.writeCount.get();
+        long pending = writes - buffer.readCount;
+        // If full, just drop the record: we are only approximating LRU
+        if (pending < READ_BUFFER_SIZE
+                && buffer.writeCount.compareAndSet(writes, writes+1)) {
+            buffer.slots.lazySet((int) writes & READ_BUFFER_MASK, node);
+            ++pending;
+        }
+        // Replay once half a buffer's worth has been recorded (or if writes are waiting)
+        if (pending >= READ_BUFFER_DRAIN_THRESHOLD
+                || _pendingWrites.get() >= WRITE_BUFFER_DRAIN_THRESHOLD) {
+            _tryDrain();
+        }
+    }
+
+    private void _tryDrain()
+    {
+        if (_evictionLock.tryLock()) {
+            try {
+                _drainReads();
+                _drainWrites();
+                _evict();
+            } finally {
+                _evictionLock.unlock();
+            }
+        }
+    }
+
+    // Note: caller must hold eviction lock
+    private void _drainReads()
+    {
+        for (ReadBuffer buffer : _readBuffers) {
+            AtomicReferenceArray<Node> slots = buffer.slots;
+            long read = buffer.readCount;
+            final long writes = buffer.writeCount.get();
+            for (; read < writes; ++read) {
+                int slot = (int) read & READ_BUFFER_MASK;
+                Node node = slots.get(slot);
+                if (node == null) { // slot claimed but not yet filled; continue on next drain
+                    break;
+                }
+                slots.lazySet(slot, null);
+                // Only entries still linked matter: others have been evicted,
+                // replaced, or not yet added
+                if (node.isLinked() && !node.retired && (_head.prev != node)) {
+                    _unlink(node);
+                    _linkLast(node);
+                }
+            }
+            buffer.readCount = read;
+        }
+    }
+
+    // Note: caller must hold eviction lock
+    private void _drainWrites()
+    {
+        Node node;
+        while ((node = _writeBuffer.poll()) != null) {
+            _pendingWrites.decrementAndGet();
+            // May have been replaced already, in which case it must not get linked
+            if (!node.retired && !node.isLinked() && _map.get(node.key) == node) {
+                _linkLast(node);
+            }
+        }
+        while ((node = _retiredBuffer.poll()) != null) {
+            if (node.isLinked()) {
+                _unlink(node);
+            }
+        }
+    }
+
+    // For tests
+    long _pendingWriteCount() {
+        return _pendingWrites.get();
+    }
+
+    // Note: caller must hold eviction lock
+    private void _evict()
+    {
+        while (_map.size() > _maxEntries) {
+            Node victim = _head.next;
+            if (victim == _head) { // only un-drained writes remain; next drain will handle
+                break;
+            }
+            _unlink(victim);
+            if (_map.remove(victim.key, victim)) {
+                _stats.recordEviction();
+            }
+        }
+    }
+
+    private void _linkLast(Node node)
+    {
+        Node last = _head.prev;
+        node.prev = last;
+        node.next = _head;
+        last.next = node;
+        _head.prev = node;
+    }
+
+    private void _unlink(Node node)
+    {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    /**
+     * Entry stored in the map; also a node in the access-order list.
+     */
+    private final static class Node
+    {
+        final ResolvedTypeKey key;
+        final ResolvedType value;
+
+        /**
+         * Set when the node has been replaced in the map by another node
+         * for the same key.
+         */
+        volatile boolean retired;
+
+        // Following only accessed while holding the eviction lock
+        Node prev, next;
+
+        Node(ResolvedTypeKey k, ResolvedType v) {
+            key = k;
+            value = v;
+        }
+
+        boolean isLinked() { return prev != null; }
+    }
+
+    /**
+     * Lossy ring buffer used for recording accesses by (mostly) a single
+     * thread, to be replayed by whoever drains buffers next.
+     */
+    private final static class ReadBuffer
+    {
+        final AtomicLong writeCount = new AtomicLong();
+
+        /**
+         * Number of slots replayed so far; only modified while holding the eviction lock.
+         */
+        volatile long readCount;
+
+        final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+    }
+}
@@ -1,6 +1,9 @@
 package com.fasterxml.classmate.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.classmate.ResolvedType;
 
@@ -12,8 +15,13 @@ import com.fasterxml.classmate.ResolvedType;
  * if maximum size is reached. This works well as long as maximum size is large enough
  * to cover most commonly resolved types, and works well for higher concurrency use
  * cases.
+ *<p>
+ * If clearing of the whole cache is problematic (since all threads then need to
+ * re-resolve types at the same time), consider using {@link ClockTypeCache}
+ * instead, which evicts entries one at a time.
  * 
  * @see LRUTypeCache
+ * @see ClockTypeCache
  */
 public class ConcurrentTypeCache
     extends ResolvedTypeCache
@@ -24,11 +32,19 @@ public class ConcurrentTypeCache
 
     protected final transient ConcurrentHashMap<ResolvedTypeKey, ResolvedType> _map;
 
+    /**
+     * Lock used to only let one thread clear the cache when it is full
+     *
+     * @since 1.6
+     */
+    private final transient ReentrantLock _clearLock;
+
     public ConcurrentTypeCache(int maxEntries) {
         // We'll use concurrency level of 4, seems reasonable
         _map = new ConcurrentHashMap<ResolvedTypeKey, ResolvedType>(maxEntries,
                 0.8f, 4);
         _maxEntries = maxEntries;
+        _clearLock = new ReentrantLock();
     }
 
     // For JDK serialization: have to re-construct backing Map since it is NOT serialized
@@ -41,7 +57,27 @@ public class ConcurrentTypeCache
         if (key == null) {
             throw new IllegalArgumentException("Null key not allowed");
         }
-        return _map.get(key);
+        return _find(key);
+    }
+
+    @Override
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        KeyProbe probe = KeyProbe.acquire(erasedType, typeParameters);
+        if (probe == null) {
+            return null;
+        }
+        try {
+            return _find(probe);
+        } finally {
+            probe.release();
+        }
+    }
+
+    // Note: key may also be a KeyProbe
+    private ResolvedType _find(Object key) {
+        ResolvedType type = _map.get(key);
+        _stats.recordLookup(type);
+        return type;
     }
 
     @Override
@@ -57,12 +93,29 @@ public class ConcurrentTypeCache
         if (_map.size() >= _maxEntries) {
             // double-locking, yes, but safe here; trying to avoid "clear storms"
             // when multiple threads think they are to flush the cache
-            synchronized (this) {
-                if (_map.size() >= _maxEntries) {
+            _clearLock.lock();
+            try {
+                int size = _map.size();
+                if (size >= _maxEntries) {
                     _map.clear();
+                    _stats.recordEvictions(size);
                 }
+            } finally {
+                _clearLock.unlock();
             }
         }
         _map.put(key, type);
+        _stats.recordPut();
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        return new ArrayList<ResolvedType>(_map.values());
+    }
+
+    @Override
+    public void clear() {
+        _map.clear();
+        _markCleared();
     }
 }
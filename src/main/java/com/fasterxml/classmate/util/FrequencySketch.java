@@ -0,0 +1,140 @@
+/*
+ * Derived from class com.github.benmanes.caffeine.cache.FrequencySketch of
+ * Caffeine (https://github.com/ben-manes/caffeine):
+ *
+ * Copyright 2015 Ben Manes. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Modified for ClassMate: simplified to operate on hash codes, with no
+ * thread-safety of its own.
+ */
+package com.fasterxml.classmate.util;
+
+/**
+ * Compact probabilistic counter of access frequencies ("Count-Min sketch"),
+ * used by {@link TinyLFUTypeCache} to estimate how often keys have been
+ * accessed recently. Counters are 4 bits wide (saturating at 15), 16 of them
+ * packed in each <code>long</code>; each key maps to one counter on each of
+ * 4 rows, and the estimate is the minimum of those.
+ * To keep estimates recent, all counters are halved once enough increments
+ * have been recorded.
+ *<p>
+ * Implementation is derived from <code>FrequencySketch</code> of the Caffeine
+ * caching library, by Ben Manes (Apache License 2.0; see file header).
+ *<p>
+ * Instances are NOT thread-safe: caller must synchronize access.
+ *
+ * @since 1.6
+ */
+final class FrequencySketch
+{
+    private final static long[] SEEDS = new long[] {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final static long RESET_MASK = 0x7777777777777777L;
+
+    private final static int MAX_COUNT = 15;
+
+    private final long[] _table;
+
+    private final int _tableMask;
+
+    /**
+     * Number of increments after which counters are halved
+     */
+    private final int _sampleSize;
+
+    /**
+     * Number of increments since last reset (approximately)
+     */
+    private int _size;
+
+    public FrequencySketch(int maxEntries)
+    {
+        int len = 16;
+        while (len < maxEntries) {
+            len <<= 1;
+        }
+        _table = new long[len];
+        _tableMask = len - 1;
+        _sampleSize = 10 * Math.max(maxEntries, 16);
+    }
+
+    /**
+     * Method for recording an access for key with given hash code.
+     */
+    public void increment(int hashCode)
+    {
+        int hash = _spread(hashCode);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; ++i) {
+            int index = _indexOf(hash, i);
+            int offset = (start + i) << 2;
+            if (((_table[index] >>> offset) & MAX_COUNT) < MAX_COUNT) {
+                _table[index] += (1L << offset);
+                added = true;
+            }
+        }
+        if (added && (++_size >= _sampleSize)) {
+            _reset();
+        }
+    }
+
+    /**
+     * Method for finding estimated number of (recent) accesses for key
+     * with given hash code.
+     */
+    public int frequency(int hashCode)
+    {
+        int hash = _spread(hashCode);
+        int start = (hash & 3) << 2;
+        int freq = MAX_COUNT;
+        for (int i = 0; i < 4; ++i) {
+            int index = _indexOf(hash, i);
+            int offset = (start + i) << 2;
+            int count = (int) ((_table[index] >>> offset) & MAX_COUNT);
+            if (count < freq) {
+                freq = count;
+            }
+        }
+        return freq;
+    }
+
+    private int _indexOf(int hash, int row)
+    {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += (h >>> 32);
+        return ((int) h) & _tableMask;
+    }
+
+    private static int _spread(int h)
+    {
+        h = (h ^ (h >>> 17)) * 0xed5ad4bb;
+        h = (h ^ (h >>> 11)) * 0xac4c1b51;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Halves all counters, to age older accesses.
+     */
+    private void _reset()
+    {
+        for (int i = 0; i < _table.length; ++i) {
+            _table[i] = (_table[i] >>> 1) & RESET_MASK;
+        }
+        _size >>>= 1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fasterxml.classmate.util;
+
+import java.lang.ref.WeakReference;
+
+import com.fasterxml.classmate.ResolvedType;
+
+/**
+ * Mutable, per-thread reusable stand-in for {@link ResolvedTypeKey}, used for
+ * looking up entries from {@link java.util.Map}s keyed by {@link ResolvedTypeKey}s
+ * without constructing a key: it has same hash code as, and is equal to,
+ * key constructed from same erased type and type parameters.
+ *<p>
+ * Instances must never be used as actual keys (stored in maps); and must
+ * be released by calling {@link #release} after use, to avoid retaining
+ * references to types (and so, classes).
+ *<p>
+ * Per-thread probes are only weakly referenced from thread-local values: otherwise
+ * every (pooled) thread that has done a lookup would keep the class loader that
+ * loaded this library alive (via class of the probe), even after the library
+ * itself is no longer used, for example after redeployment of a web application.
+ * Probes are only strongly reachable during lookups, so one gets re-created
+ * when the garbage collector has cleared it.
+ *
+ * @since 1.6
+ */
+final class KeyProbe
+{
+    private final static ThreadLocal<WeakReference<KeyProbe>> PROBES
+        = new ThreadLocal<WeakReference<KeyProbe>>();
+
+    private Class<?> _erasedType;
+    private ResolvedType[] _typeParameters;
+    private int _hashCode;
+
+    private KeyProbe() { }
+
+    /**
+     * Factory method for getting probe for current thread, set to match
+     * given erased type and type parameters; or null if type is not cacheable
+     * (see {@link ResolvedTypeCache#key(Class, ResolvedType[])})
+     */
+    public static KeyProbe acquire(Class<?> erasedType, ResolvedType[] tp)
+    {
+        if (ResolvedTypeCache._hasPlaceholders(tp)) {
+            return null;
+        }
+        WeakReference<KeyProbe> ref = PROBES.get();
+        KeyProbe probe = (ref == null) ? null : ref.get();
+        if (probe == null) {
+            probe = new KeyProbe();
+            PROBES.set(new WeakReference<KeyProbe>(probe));
+        }
+        probe._erasedType = erasedType;
+        probe._typeParameters = tp;
+        probe._hashCode = ResolvedType.structuralHash(erasedType, tp);
+        return probe;
+    }
+
+    public void release() {
+        _erasedType = null;
+        _typeParameters = null;
+    }
+
+    public Class<?> erasedType() {
+        return _erasedType;
+    }
+
+    public ResolvedType[] typeParameters() {
+        return _typeParameters;
+    }
+
+    /*
+    /**********************************************************************
+    /* Standard methods
+    /**********************************************************************
+     */
+
+    @Override
+    public int hashCode() { return _hashCode; }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        // Note: only called by Maps with stored keys, which are never probes
+        return (o instanceof ResolvedTypeKey)
+                && ((ResolvedTypeKey) o).matches(_erasedType, _typeParameters);
+    }
+
+    @Override
+    public String toString() {
+        return "[KeyProbe: "+_erasedType+"]";
+    }
+}
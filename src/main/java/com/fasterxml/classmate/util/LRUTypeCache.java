@@ -1,6 +1,7 @@
 package com.fasterxml.classmate.util;
 
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.classmate.ResolvedType;
 
@@ -9,7 +10,9 @@ import com.fasterxml.classmate.ResolvedType;
  * {@link ResolvedType} instances. Uses "least-recently used" eviction algorithm
  * (via {@link LinkedHashMap} used internally) which optimized retention, but
  * requires full synchronization as read operation also has to modify internal state
- * to maintain LRU aspects.
+ * to maintain LRU aspects. As of 1.6, a {@link ReentrantLock} is used instead of
+ * synchronizing on the instance, so virtual threads waiting for access do not
+ * pin their carrier threads.
  * This means that it works well in optimizing access patterns, by keeping most recently
  * accessed types in cache, but may not well work well for highly concurrent cases due
  * to synchronization overhead.
@@ -30,9 +33,19 @@ public class LRUTypeCache extends ResolvedTypeCache
 
     protected final transient CacheMap _map;
 
+    /**
+     * Lock used for all access, instead of synchronizing on this instance,
+     * so that virtual threads waiting for the lock do not pin their carrier
+     * threads (on JDKs before 24).
+     *
+     * @since 1.6
+     */
+    protected final transient ReentrantLock _lock;
+
     public LRUTypeCache(int maxEntries) {
-        _map = new CacheMap(maxEntries);
+        _map = new CacheMap(maxEntries, _stats);
         _maxEntries = maxEntries;
+        _lock = new ReentrantLock();
     }
 
     // For JDK serialization: have to re-construct backing Map since it is NOT serialized
@@ -41,24 +54,102 @@ public class LRUTypeCache extends ResolvedTypeCache
     }
 
     @Override
-    public synchronized ResolvedType find(ResolvedTypeKey key) {
+    public ResolvedType find(ResolvedTypeKey key) {
         if (key == null) {
             throw new IllegalArgumentException("Null key not allowed");
         }
-        return _map.get(key);
+        _lock.lock();
+        try {
+            return _find(key);
+        } finally {
+            _lock.unlock();
+        }
     }
 
     @Override
-    public synchronized int size() {
-        return _map.size();
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        KeyProbe probe = KeyProbe.acquire(erasedType, typeParameters);
+        if (probe == null) {
+            return null;
+        }
+        _lock.lock();
+        try {
+            return _find(probe);
+        } finally {
+            _lock.unlock();
+            probe.release();
+        }
+    }
+
+    // Note: key may also be a KeyProbe; caller must hold the lock
+    private ResolvedType _find(Object key) {
+        ResolvedType type = _map.get(key);
+        _stats.recordLookup(type);
+        return type;
     }
-    
+
     @Override
-    public synchronized void put(ResolvedTypeKey key, ResolvedType type) {
+    public int size() {
+        _lock.lock();
+        try {
+            return _map.size();
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(ResolvedTypeKey key, ResolvedType type) {
         if (key == null) {
             throw new IllegalArgumentException("Null key not allowed");
         }
-        _map.put(key, type);
+        _lock.lock();
+        try {
+            _map.put(key, type);
+            _stats.recordPut();
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    /**
+     * Since entries are added in order, only the last {@link #_maxEntries}
+     * entries are actually added: earlier ones would just get evicted by later ones.
+     */
+    @Override
+    public void putAll(Map<ResolvedTypeKey, ResolvedType> entries) {
+        int toSkip = entries.size() - _maxEntries;
+        _lock.lock();
+        try {
+            for (Map.Entry<ResolvedTypeKey, ResolvedType> entry : entries.entrySet()) {
+                if (--toSkip < 0) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        _lock.lock();
+        try {
+            return new ArrayList<ResolvedType>(_map.values());
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        _lock.lock();
+        try {
+            _map.clear();
+            _markCleared();
+        } finally {
+            _lock.unlock();
+        }
     }
 
     /*
@@ -75,14 +166,21 @@ public class LRUTypeCache extends ResolvedTypeCache
         extends LinkedHashMap<ResolvedTypeKey, ResolvedType>
     {
         protected final int _maxEntries;
+
+        protected final StatsCounter _stats;
         
-        public CacheMap(int maxEntries) {
+        public CacheMap(int maxEntries, StatsCounter stats) {
             _maxEntries = maxEntries;
+            _stats = stats;
         }
 
         @Override
         protected boolean removeEldestEntry(Map.Entry<ResolvedTypeKey, ResolvedType> eldest) {
-            return size() > _maxEntries;
+            if (size() > _maxEntries) {
+                _stats.recordEviction();
+                return true;
+            }
+            return false;
         }
     }
 }
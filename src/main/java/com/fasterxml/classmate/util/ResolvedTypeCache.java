@@ -1,7 +1,12 @@
 package com.fasterxml.classmate.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.classmate.ResolvedType;
 import com.fasterxml.classmate.types.TypePlaceHolder;
@@ -15,6 +20,37 @@ import com.fasterxml.classmate.types.TypePlaceHolder;
 @SuppressWarnings("serial")
 public abstract class ResolvedTypeCache implements Serializable
 {
+    /**
+     * Counters for statistics; updated by implementations. Not serialized,
+     * but re-created on deserialization (see {@link #readObject}).
+     *
+     * @since 1.6
+     */
+    protected transient StatsCounter _stats = new StatsCounter();
+
+    /**
+     * Counter incremented whenever cache is explicitly cleared (see {@link #clear}),
+     * so that copies of entries kept elsewhere (like thread-local caches) can
+     * detect they are stale. Not serialized, but re-created on deserialization.
+     *
+     * @since 1.6
+     */
+    protected transient AtomicInteger _generation = new AtomicInteger();
+
+    /**
+     * Bundled implementations re-construct themselves on deserialization (using
+     * <code>readResolve()</code>), but other sub-classes need not; so transient state
+     * of this class needs to be re-created here.
+     *
+     * @since 1.6
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        _stats = new StatsCounter();
+        _generation = new AtomicInteger();
+    }
+
     /**
      * @since 1.4
      */
@@ -29,6 +65,61 @@ public abstract class ResolvedTypeCache implements Serializable
         return new ConcurrentTypeCache(maxEntries);
     }
 
+    /**
+     * Factory method for constructing concurrent cache that evicts entries
+     * incrementally (using "CLOCK" algorithm) instead of clearing the whole
+     * cache when full, as {@link #concurrentCache} does.
+     *
+     * @since 1.6
+     */
+    public static ResolvedTypeCache clockCache(int maxEntries) {
+        return new ClockTypeCache(maxEntries);
+    }
+
+    /**
+     * Factory method for constructing cache that uses LRU eviction, but only admits
+     * new entries if they are requested more frequently than entries they would replace.
+     *
+     * @since 1.6
+     */
+    public static ResolvedTypeCache tinyLfuCache(int maxEntries) {
+        return new TinyLFUTypeCache(maxEntries);
+    }
+
+    /**
+     * Factory method for constructing cache that partitions entries by class loader,
+     * so that cached types do not prevent unloading of class loaders.
+     *
+     * @since 1.6
+     */
+    public static ResolvedTypeCache classLoaderAwareCache(int maxEntries) {
+        return new ClassLoaderAwareTypeCache(maxEntries);
+    }
+
+    /**
+     * Factory method for constructing cache that retains approximately least-recently-used
+     * entries (like {@link #lruCache}) without blocking readers (like {@link #concurrentCache}).
+     *
+     * @since 1.6
+     */
+    public static ResolvedTypeCache concurrentLruCache(int maxEntries) {
+        return new ConcurrentLRUTypeCache(maxEntries);
+    }
+
+    /**
+     * Factory method for constructing cache that keeps a small thread-local
+     * cache of recently accessed entries in front of given shared cache.
+     *
+     * @param shared Cache that all threads share; accessed when lookup from
+     *    thread-local cache fails
+     * @param localEntries Maximum number of entries each thread-local cache holds
+     *
+     * @since 1.6
+     */
+    public static ResolvedTypeCache threadLocalCache(ResolvedTypeCache shared, int localEntries) {
+        return new ThreadLocalTypeCache(shared, localEntries);
+    }
+
     /**
      * Helper method for constructing reusable cache keys
      */
@@ -46,20 +137,142 @@ public abstract class ResolvedTypeCache implements Serializable
         }
         // 25-Oct-2015, tatu: Need to prevent caching of anything with TypePlaceHolder;
         //   can cause problems otherwise as those are ephemeral/mutable containers
-        for (int i = 0; i < len; ++i) {
-            if (tp[i] instanceof TypePlaceHolder) {
-                return null;
-            }
+        if (_hasPlaceholders(tp)) {
+            return null;
         }
         return new ResolvedTypeKey(simpleType, tp);
     }
 
     public abstract ResolvedType find(ResolvedTypeKey key);
 
+    /**
+     * Method for finding cached type with given erased type and type parameters
+     * without caller having to construct a key (see {@link #key(Class, ResolvedType[])}),
+     * so that the common case of a cache hit need not allocate anything.
+     * Returns null if no such type is cached, or if type can not be cached
+     * (in which case {@link #key(Class, ResolvedType[])} returns null and
+     * lookup is not counted in statistics).
+     *<p>
+     * Default implementation simply constructs a key and calls {@link #find(ResolvedTypeKey)};
+     * implementations included in this package override it to avoid allocation.
+     *
+     * @since 1.6
+     */
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        ResolvedTypeKey key = key(erasedType, typeParameters);
+        return (key == null) ? null : find(key);
+    }
+
     public abstract int size();
 
     public abstract void put(ResolvedTypeKey key, ResolvedType type);
 
+    /**
+     * Method for adding multiple entries at once, in iteration order of given map
+     * (which matters for caches that evict entries based on recency).
+     * Used by {@link com.fasterxml.classmate.TypeResolver#resolveAll} to add
+     * all types constructed during a batch.
+     *<p>
+     * Default implementation simply calls {@link #put} for each entry;
+     * synchronized implementations override it to only lock once.
+     *
+     * @since 1.6
+     */
+    public void putAll(Map<ResolvedTypeKey, ResolvedType> entries) {
+        for (Map.Entry<ResolvedTypeKey, ResolvedType> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Method for removing all entries from this cache. Implementations need to
+     * call {@link #_markCleared} once done, so that {@link #generation} changes.
+     *<p>
+     * Default implementation throws {@link UnsupportedOperationException};
+     * all implementations included in this package support clearing.
+     *
+     * @since 1.6
+     */
+    public void clear() {
+        throw new UnsupportedOperationException("Cache of type "+getClass().getName()
+                +" does not support clear()");
+    }
+
+    /**
+     * Method for getting a snapshot of all types currently cached; for concurrent
+     * implementations, entries added or removed during the call may or may not
+     * be included.
+     *<p>
+     * Default implementation returns empty list;
+     * all implementations included in this package return actual contents.
+     *
+     * @since 1.6
+     */
+    public List<ResolvedType> contents() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Accessor for "generation" of this cache, which changes whenever cache is
+     * cleared: entries copied from this cache (and accessed without going through it)
+     * are only valid as long as generation stays the same.
+     *
+     * @since 1.6
+     */
+    public int generation() {
+        return _generation.get();
+    }
+
+    /**
+     * Accessor for getting snapshot of statistics collected by this cache
+     * since its construction.
+     *
+     * @since 1.6
+     */
+    public CacheStats stats() {
+        return _stats.snapshot();
+    }
+
+    /**
+     * Method called by {@link com.fasterxml.classmate.TypeResolver} to indicate
+     * time spent on constructing a type that was not found in this cache
+     * (and that is then added using {@link #put}).
+     *
+     * @param nanos Time spent, in nanoseconds
+     *
+     * @since 1.6
+     */
+    public void recordLoadTime(long nanos) {
+        _stats.recordLoadTime(nanos);
+    }
+
+    /**
+     * Helper method for checking whether given type parameters include
+     * {@link TypePlaceHolder}s, in which case types can not be cached.
+     *
+     * @since 1.6
+     */
+    static boolean _hasPlaceholders(ResolvedType[] tp)
+    {
+        if (tp != null) {
+            for (int i = 0, len = tp.length; i < len; ++i) {
+                if (tp[i] instanceof TypePlaceHolder) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method implementations of {@link #clear} call after removing entries.
+     *
+     * @since 1.6
+     */
+    protected void _markCleared() {
+        _generation.incrementAndGet();
+    }
+
     // // // Methods for unit tests
 
     /**
@@ -0,0 +1,32 @@
+package com.fasterxml.classmate.util;
+
+/**
+ * Management interface for exposing statistics of a {@link ResolvedTypeCache}
+ * via JMX; see {@link ResolvedTypeCacheMonitor}.
+ *
+ * @since 1.6
+ */
+public interface ResolvedTypeCacheMXBean
+{
+    public int getSize();
+
+    public long getHitCount();
+
+    public long getMissCount();
+
+    public double getHitRate();
+
+    public long getPutCount();
+
+    public long getEvictionCount();
+
+    /**
+     * @return Total time spent on constructing types not found in cache, in nanoseconds
+     */
+    public long getTotalLoadTime();
+
+    /**
+     * @return Average time spent on constructing a type not found in cache, in nanoseconds
+     */
+    public double getAverageLoadPenalty();
+}
@@ -0,0 +1,68 @@
+package com.fasterxml.classmate.util;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * {@link ResolvedTypeCacheMXBean} implementation that exposes statistics
+ * of a single {@link ResolvedTypeCache}. Usually registered using
+ * {@link com.fasterxml.classmate.TypeResolver#registerCacheMBean(String)}.
+ *
+ * @since 1.6
+ */
+public class ResolvedTypeCacheMonitor implements ResolvedTypeCacheMXBean
+{
+    /**
+     * JMX domain used for names of registered beans
+     */
+    public final static String JMX_DOMAIN = "com.fasterxml.classmate";
+
+    protected final ResolvedTypeCache _cache;
+
+    public ResolvedTypeCacheMonitor(ResolvedTypeCache cache) {
+        _cache = cache;
+    }
+
+    /**
+     * Method for registering a monitor for given cache with the platform MBean server,
+     * using object name
+     * <code>com.fasterxml.classmate:type=ResolvedTypeCache,name=[name]</code>.
+     *
+     * @return Name under which the bean was registered; needed for unregistering
+     */
+    public static ObjectName register(ResolvedTypeCache cache, String name)
+        throws JMException
+    {
+        ObjectName objectName = new ObjectName(JMX_DOMAIN+":type=ResolvedTypeCache,name="
+                +ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new ResolvedTypeCacheMonitor(cache),
+                objectName);
+        return objectName;
+    }
+
+    @Override
+    public int getSize() { return _cache.size(); }
+
+    @Override
+    public long getHitCount() { return _cache.stats().hitCount(); }
+
+    @Override
+    public long getMissCount() { return _cache.stats().missCount(); }
+
+    @Override
+    public double getHitRate() { return _cache.stats().hitRate(); }
+
+    @Override
+    public long getPutCount() { return _cache.stats().putCount(); }
+
+    @Override
+    public long getEvictionCount() { return _cache.stats().evictionCount(); }
+
+    @Override
+    public long getTotalLoadTime() { return _cache.stats().totalLoadTime(); }
+
+    @Override
+    public double getAverageLoadPenalty() { return _cache.stats().averageLoadPenalty(); }
+}
@@ -23,13 +23,33 @@ public class ResolvedTypeKey
         }
         _erasedType = erasedType;
         _typeParameters = tp;
-        int h = erasedType.getName().hashCode();
-        if (tp != null) {
-            h += tp.length;
-        }
-        _hashCode = h;
+        // same as hash code of the type itself, so parameterizations differ
+        _hashCode = ResolvedType.structuralHash(erasedType, tp);
+    }
+
+    /*
+    /**********************************************************************
+    /* Package accessible methods
+    /**********************************************************************
+     */
+
+    Class<?> erasedType() {
+        return _erasedType;
+    }
+
+    /**
+     * @return Type parameters, if any; null if none
+     */
+    ResolvedType[] typeParameters() {
+        return _typeParameters;
     }
 
+    /*
+    /**********************************************************************
+    /* Standard methods
+    /**********************************************************************
+     */
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -57,8 +77,21 @@ public class ResolvedTypeKey
         if (o == this) return true;
         if (o == null || o.getClass() != getClass()) return false;
         ResolvedTypeKey other = (ResolvedTypeKey) o;
-        if (other._erasedType != _erasedType) return false;
-        ResolvedType[] otherTP = other._typeParameters;
+        return matches(other._erasedType, other._typeParameters);
+    }
+
+    /**
+     * Method for checking whether this key matches given erased type and
+     * type parameters (null or empty array meaning "no type parameters")
+     *
+     * @since 1.6
+     */
+    boolean matches(Class<?> erasedType, ResolvedType[] otherTP)
+    {
+        if (erasedType != _erasedType) return false;
+        if (otherTP != null && otherTP.length == 0) {
+            otherTP = null;
+        }
         if (_typeParameters == null) {
             return (otherTP == null);
         }
@@ -0,0 +1,130 @@
+package com.fasterxml.classmate.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Alternative to {@link ClassValue} for values of types loaded by this library,
+ * which does not keep the class loader of this library from being unloaded.
+ *<p>
+ * A value attached to a class using {@link ClassValue} is strongly held by the
+ * class for as long as both exist; and since the value refers to the class loader
+ * that loaded its type, so is that loader (along with the {@link ClassValue} itself).
+ * For classes that can not be unloaded before this library can (JDK classes,
+ * and classes loaded by ancestors of the loader of this library), values would
+ * therefore keep this library loaded forever: for example, when the library is
+ * included in a web application, after every redeployment.
+ * So values for such ("loader-stable") classes are instead kept in a bounded
+ * map held by this object; values for all other classes are attached
+ * to classes using {@link ClassValue}.
+ *
+ * @since 1.6
+ */
+public abstract class SafeClassValue<T>
+{
+    /**
+     * Ancestors of the class loader of this library (not including the loader
+     * itself, nor the bootstrap loader)
+     */
+    private final static ClassLoader[] STABLE_LOADERS;
+    static {
+        List<ClassLoader> loaders = new ArrayList<ClassLoader>();
+        ClassLoader own = SafeClassValue.class.getClassLoader();
+        if (own != null) {
+            for (ClassLoader l = own.getParent(); l != null; l = l.getParent()) {
+                loaders.add(l);
+            }
+        }
+        STABLE_LOADERS = loaders.toArray(new ClassLoader[loaders.size()]);
+    }
+
+    private final ClassValue<T> _attached = new ClassValue<T>() {
+        @Override
+        protected T computeValue(Class<?> type) {
+            return SafeClassValue.this.computeValue(type);
+        }
+    };
+
+    private final ConcurrentHashMap<Class<?>, T> _stable;
+
+    private final int _maxStableEntries;
+
+    private final ReentrantLock _trimLock = new ReentrantLock();
+
+    /**
+     * @param maxStableEntries Maximum number of values to keep for loader-stable classes
+     */
+    protected SafeClassValue(int maxStableEntries) {
+        _maxStableEntries = maxStableEntries;
+        _stable = new ConcurrentHashMap<Class<?>, T>(Math.min(64, maxStableEntries), 0.75f, 4);
+    }
+
+    /**
+     * Method for constructing value for given class; may be called more than once
+     * for the same class, in which case one of values is returned.
+     */
+    protected abstract T computeValue(Class<?> type);
+
+    public T get(Class<?> type)
+    {
+        if (!isLoaderStable(type)) {
+            return _attached.get(type);
+        }
+        T value = _stable.get(type);
+        if (value == null) {
+            if (_stable.size() >= _maxStableEntries) {
+                _trim();
+            }
+            value = computeValue(type);
+            T old = _stable.putIfAbsent(type, value);
+            if (old != null) {
+                value = old;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Method for checking whether given class can not be unloaded before this
+     * library can: that is, whether it was loaded by the bootstrap loader, or
+     * by an ancestor of the loader of this library.
+     */
+    public static boolean isLoaderStable(Class<?> type)
+    {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return true;
+        }
+        for (ClassLoader l : STABLE_LOADERS) {
+            if (l == loader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method for dropping a quarter of values for loader-stable classes
+     * (effectively a random sample) when there is no room for more. Only one
+     * thread trims at a time; others just add their values.
+     */
+    private void _trim()
+    {
+        if (!_trimLock.tryLock()) {
+            return;
+        }
+        try {
+            int toRemove = _stable.size() - _maxStableEntries + Math.max(1, _maxStableEntries / 4);
+            Iterator<Class<?>> it = _stable.keySet().iterator();
+            for (; (toRemove > 0) && it.hasNext(); --toRemove) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            _trimLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.fasterxml.classmate.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mutable, thread-safe set of counters that {@link ResolvedTypeCache} implementations
+ * update (via {@link ResolvedTypeCache#_stats}); uses striped counters
+ * ({@link LongAdder}) to keep updates cheap even under heavy concurrent access.
+ *<p>
+ * Custom cache implementations are expected to call {@link #recordHit} or
+ * {@link #recordMiss} (or {@link #recordLookup}) for each lookup,
+ * {@link #recordPut} for each entry added and {@link #recordEviction}
+ * for each entry dropped to make room for others; load times are recorded
+ * by {@link ResolvedTypeCache#recordLoadTime}.
+ *
+ * @since 1.6
+ */
+public final class StatsCounter
+{
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _puts = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+    private final LongAdder _loadTime = new LongAdder();
+
+    public StatsCounter() { }
+
+    /**
+     * Method for recording a lookup that found the type requested.
+     */
+    public void recordHit() { _hits.increment(); }
+
+    /**
+     * Method for recording a lookup that did not find the type requested.
+     */
+    public void recordMiss() { _misses.increment(); }
+
+    /**
+     * Convenience method for recording either a hit (if type found) or miss (if not).
+     */
+    public void recordLookup(Object found) {
+        if (found == null) {
+            _misses.increment();
+        } else {
+            _hits.increment();
+        }
+    }
+
+    /**
+     * Method for recording addition of an entry.
+     */
+    public void recordPut() { _puts.increment(); }
+
+    /**
+     * Method for recording removal of an entry to make room for others (but not
+     * removal due to explicit clearing of cache).
+     */
+    public void recordEviction() { _evictions.increment(); }
+
+    /**
+     * Method for recording removal of given number of entries at once.
+     */
+    public void recordEvictions(long count) { _evictions.add(count); }
+
+    /**
+     * Method for recording time (in nanoseconds) spent constructing a type
+     * not found in cache.
+     */
+    public void recordLoadTime(long nanos) { _loadTime.add(nanos); }
+
+    /**
+     * Method for getting immutable snapshot of current counter values.
+     */
+    public CacheStats snapshot() {
+        return new CacheStats(_hits.sum(), _misses.sum(), _puts.sum(),
+                _evictions.sum(), _loadTime.sum());
+    }
+}
@@ -0,0 +1,237 @@
+package com.fasterxml.classmate.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.classmate.ResolvedType;
+
+/**
+ * {@link ResolvedTypeCache} implementation that adds a small per-thread
+ * cache ("L1") in front of a shared cache ("L2"): lookups are first done against
+ * entries the calling thread has recently seen, and only on miss against the
+ * shared cache. This avoids accessing (and, for caches that track accesses,
+ * modifying) shared state for the handful of types a thread resolves over
+ * and over again.
+ *<p>
+ * Thread-local caches are direct-mapped (each key has exactly one slot it may
+ * occupy), fixed-size arrays, so lookups do not allocate anything, and
+ * collisions simply overwrite older entries.
+ * Entries are tagged with {@link #generation} of this cache, which changes
+ * both when this cache is cleared (via {@link #clear}) and when the shared
+ * cache is: thread-local entries are then discarded on next access.
+ * This works even if the shared cache does not support clearing.
+ *<p>
+ * Note that since thread-local entries are strongly referenced from threads,
+ * they may retain types (and so class loaders) until overwritten or until
+ * shared cache is cleared, regardless of what shared cache does; so this
+ * cache is best used with small number of local entries.
+ *<p>
+ * Like all {@link ResolvedTypeCache} implementations,
+ * access is thread-safe and caller need not (and should not) use additional synchronization.
+ *
+ * @since 1.6
+ */
+public class ThreadLocalTypeCache extends ResolvedTypeCache
+{
+    private static final long serialVersionUID = 1L;
+
+    protected final ResolvedTypeCache _shared;
+
+    protected final int _localEntries;
+
+    protected final transient ThreadLocal<LocalCache> _local;
+
+    public ThreadLocalTypeCache(ResolvedTypeCache shared, int localEntries)
+    {
+        if (shared == null) {
+            throw new IllegalArgumentException("Shared cache can not be null");
+        }
+        if (localEntries < 1) {
+            throw new IllegalArgumentException("Local entry count must be positive, was "+localEntries);
+        }
+        _shared = shared;
+        // round up to power of 2, to allow masking
+        int size = 1;
+        while (size < localEntries) {
+            size <<= 1;
+        }
+        _localEntries = size;
+        _local = new ThreadLocal<LocalCache>();
+    }
+
+    // For JDK serialization: have to re-construct thread-locals since they are NOT serialized
+    Object readResolve() {
+        return new ThreadLocalTypeCache(_shared, _localEntries);
+    }
+
+    /*
+    /**********************************************************************
+    /* ResolvedTypeCache implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public ResolvedType find(ResolvedTypeKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        // Need to get generation before accessing shared cache, so that clearing
+        // during lookup can not leave stale entries behind
+        final int generation = generation();
+        LocalCache local = _localCache(generation);
+        int ix = key.hashCode() & (_localEntries - 1);
+        ResolvedTypeKey localKey = local.keys[ix];
+        if (localKey != null && localKey.equals(key)) {
+            _stats.recordHit();
+            return local.values[ix];
+        }
+        ResolvedType type = _shared.find(key);
+        if (type != null) {
+            local.keys[ix] = key;
+            local.values[ix] = type;
+        }
+        return type;
+    }
+
+    @Override
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        if (_hasPlaceholders(typeParameters)) {
+            return null;
+        }
+        final int generation = generation();
+        LocalCache local = _localCache(generation);
+        int ix = ResolvedType.structuralHash(erasedType, typeParameters) & (_localEntries - 1);
+        ResolvedTypeKey localKey = local.keys[ix];
+        if (localKey != null && localKey.matches(erasedType, typeParameters)) {
+            _stats.recordHit();
+            return local.values[ix];
+        }
+        ResolvedType type = _shared.find(erasedType, typeParameters);
+        if (type != null) {
+            // only need to construct key when copying entry to thread-local cache
+            local.keys[ix] = key(erasedType, typeParameters);
+            local.values[ix] = type;
+        }
+        return type;
+    }
+
+    @Override
+    public int size() {
+        return _shared.size();
+    }
+
+    @Override
+    public void put(ResolvedTypeKey key, ResolvedType type) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        final int generation = generation();
+        _shared.put(key, type);
+        LocalCache local = _localCache(generation);
+        int ix = key.hashCode() & (_localEntries - 1);
+        local.keys[ix] = key;
+        local.values[ix] = type;
+    }
+
+    @Override
+    public void putAll(Map<ResolvedTypeKey, ResolvedType> entries) {
+        // bulk additions are not copied to thread-local cache; they are
+        // unlikely to all be accessed by the calling thread
+        _shared.putAll(entries);
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        return _shared.contents();
+    }
+
+    /**
+     * Clears the shared cache, if it supports clearing (if not, it is left as is);
+     * thread-local caches are cleared lazily, on their next access by owning thread.
+     */
+    @Override
+    public void clear() {
+        try {
+            _shared.clear();
+        } catch (UnsupportedOperationException e) {
+            // fine: thread-local entries are still discarded
+        }
+        _markCleared();
+    }
+
+    /**
+     * Generation of this cache changes whenever either this cache or the shared
+     * cache is cleared, since thread-local entries are only valid as long as
+     * neither is. Since neither generation ever decreases, their sum never
+     * repeats a value (barring overflow).
+     */
+    @Override
+    public int generation() {
+        return _shared.generation() + _generation.get();
+    }
+
+    /**
+     * Statistics include those of the shared cache; lookups that are satisfied by
+     * thread-local caches are counted as additional hits.
+     */
+    @Override
+    public CacheStats stats() {
+        return _shared.stats().plus(_stats.snapshot());
+    }
+
+    @Override
+    public void recordLoadTime(long nanos) {
+        _shared.recordLoadTime(nanos);
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    private LocalCache _localCache(int generation)
+    {
+        LocalCache local = _local.get();
+        if (local == null) {
+            local = new LocalCache(_localEntries, generation);
+            _local.set(local);
+        } else if (local.generation != generation) {
+            local.reset(generation);
+        }
+        return local;
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    /**
+     * Entries cached for a single thread; only accessed by that thread.
+     */
+    private final static class LocalCache
+    {
+        final ResolvedTypeKey[] keys;
+        final ResolvedType[] values;
+
+        /**
+         * Generation of the shared cache entries were copied from
+         */
+        int generation;
+
+        LocalCache(int size, int gen) {
+            keys = new ResolvedTypeKey[size];
+            values = new ResolvedType[size];
+            generation = gen;
+        }
+
+        void reset(int gen) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            generation = gen;
+        }
+    }
+}
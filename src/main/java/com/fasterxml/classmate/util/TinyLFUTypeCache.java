@@ -0,0 +1,161 @@
+package com.fasterxml.classmate.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.classmate.ResolvedType;
+
+/**
+ * {@link ResolvedTypeCache} implementation that combines "least-recently used"
+ * eviction (like {@link LRUTypeCache}) with frequency-based admission ("TinyLFU"):
+ * all lookups are counted in a compact {@link FrequencySketch}, and when the cache is
+ * full, a new entry is only added if it has been requested more often
+ * (recently) than the entry that would need to be evicted to make room for it.
+ *<p>
+ * This keeps a small set of frequently used types cached even when there is a
+ * long tail of types that are resolved only once or twice (for example, ad hoc
+ * parameterizations constructed via reflection), which with plain LRU would
+ * keep pushing out more valuable entries.
+ *<p>
+ * Like {@link LRUTypeCache}, all cache access is guarded by a single lock
+ * so that caller need not (and should not) use additional synchronization.
+ *
+ * @see LRUTypeCache
+ *
+ * @since 1.6
+ */
+public class TinyLFUTypeCache extends ResolvedTypeCache
+{
+    private static final long serialVersionUID = 1L;
+
+    protected final int _maxEntries;
+
+    protected final transient LinkedHashMap<ResolvedTypeKey, ResolvedType> _map;
+
+    protected final transient FrequencySketch _sketch;
+
+    /**
+     * Lock used for all access (instead of synchronizing on this instance,
+     * which would pin carrier threads of waiting virtual threads)
+     */
+    protected final transient ReentrantLock _lock;
+
+    public TinyLFUTypeCache(int maxEntries)
+    {
+        _maxEntries = maxEntries;
+        // access-ordered, so eldest entry is the least recently used one
+        _map = new LinkedHashMap<ResolvedTypeKey, ResolvedType>(16, 0.75f, true);
+        _sketch = new FrequencySketch(maxEntries);
+        _lock = new ReentrantLock();
+    }
+
+    // For JDK serialization: have to re-construct backing Map since it is NOT serialized
+    Object readResolve() {
+        return new TinyLFUTypeCache(_maxEntries);
+    }
+
+    @Override
+    public ResolvedType find(ResolvedTypeKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        _lock.lock();
+        try {
+            return _find(key);
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public ResolvedType find(Class<?> erasedType, ResolvedType[] typeParameters) {
+        KeyProbe probe = KeyProbe.acquire(erasedType, typeParameters);
+        if (probe == null) {
+            return null;
+        }
+        _lock.lock();
+        try {
+            return _find(probe);
+        } finally {
+            _lock.unlock();
+            probe.release();
+        }
+    }
+
+    // Note: key may also be a KeyProbe; caller must hold the lock
+    private ResolvedType _find(Object key) {
+        // count all requests, including misses: they are what admission is based on
+        _sketch.increment(key.hashCode());
+        ResolvedType type = _map.get(key);
+        _stats.recordLookup(type);
+        return type;
+    }
+
+    @Override
+    public int size() {
+        _lock.lock();
+        try {
+            return _map.size();
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(ResolvedTypeKey key, ResolvedType type) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key not allowed");
+        }
+        _lock.lock();
+        try {
+            if ((_map.size() < _maxEntries) || _map.containsKey(key)) {
+                _map.put(key, type);
+                _stats.recordPut();
+                return;
+            }
+            Iterator<ResolvedTypeKey> it = _map.keySet().iterator();
+            ResolvedTypeKey victim = it.next();
+            // Only admit if more popular than the entry we'd evict; otherwise drop the candidate
+            if (_sketch.frequency(key.hashCode()) > _sketch.frequency(victim.hashCode())) {
+                it.remove();
+                _stats.recordEviction();
+                _map.put(key, type);
+                _stats.recordPut();
+            }
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Map<ResolvedTypeKey, ResolvedType> entries) {
+        _lock.lock();
+        try {
+            super.putAll(entries);
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public List<ResolvedType> contents() {
+        _lock.lock();
+        try {
+            return new ArrayList<ResolvedType>(_map.values());
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        _lock.lock();
+        try {
+            // Note: access frequencies are retained; they are not tied to cached entries
+            _map.clear();
+            _markCleared();
+        } finally {
+            _lock.unlock();
+        }
+    }
+}
@@ -6,7 +6,7 @@ import com.fasterxml.classmate.types.*;
 import com.fasterxml.classmate.util.*;
 
 public class TestRunner {
-	private final static int AMOUNTOFTESTS = 226;
+	private final static int AMOUNTOFTESTS = 281;
 	
 	public static void main(String[] args) 
 	{
@@ -104,6 +104,9 @@ public class TestRunner {
 //		com.fasterxml.classmate.util
 				ClassKeyTest.class,
 				MethodKeyTest.class,
-				TestResolvedTypeCache.class);
+				TestClassLoaderAwareTypeCache.class,
+				TestClassMembers.class,
+				TestResolvedTypeCache.class,
+				TestTinyLFUTypeCache.class);
 	}
 }
\ No newline at end of file
@@ -2,13 +2,17 @@ package com.fasterxml.classmate;
 
 import java.io.Serializable;
 import java.nio.CharBuffer;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 
 import com.fasterxml.classmate.types.ResolvedArrayType;
 import com.fasterxml.classmate.types.ResolvedInterfaceType;
 import com.fasterxml.classmate.types.ResolvedObjectType;
+import com.fasterxml.classmate.util.ResolvedTypeCache;
+import com.fasterxml.classmate.util.ResolvedTypeKey;
 
 public class ResolvedTypeTest extends BaseTest
 {
@@ -140,4 +144,30 @@ public class ResolvedTypeTest extends BaseTest
         assertEquals(Bar16.class, params.get(0).getErasedType());
         assertEquals(Foo16.class, params.get(1).getErasedType());
     }
+
+    // Hash codes include type parameters, and cache keys agree with types
+    @Test
+    public void testParameterizedHashCodes()
+    {
+        TypeResolver resolver = new TypeResolver();
+        ResolvedTypeCache cache = ResolvedTypeCache.lruCache(10);
+        ResolvedType stringList = resolver.resolve(List.class, String.class);
+        ResolvedType[] types = new ResolvedType[] {
+                stringList,
+                resolver.resolve(List.class, Integer.class),
+                resolver.resolve(List.class, stringList)
+        };
+        Set<Integer> typeHashes = new HashSet<Integer>();
+        Set<Integer> keyHashes = new HashSet<Integer>();
+        for (ResolvedType type : types) {
+            ResolvedTypeKey key = cache.key(type.getErasedType(), type.getTypeBindings().typeParameterArray());
+            assertEquals(type.toString(), type.hashCode(), key.hashCode());
+            typeHashes.add(type.hashCode());
+            keyHashes.add(key.hashCode());
+        }
+        assertEquals(types.length, typeHashes.size());
+        assertEquals(types.length, keyHashes.size());
+        // and equal types have equal hash codes, regardless of how resolved
+        assertEquals(stringList.hashCode(), new TypeResolver().resolve(new GenericType<List<String>>() { }).hashCode());
+    }
 }
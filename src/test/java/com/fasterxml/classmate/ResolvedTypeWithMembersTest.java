@@ -37,6 +37,12 @@ public class ResolvedTypeWithMembersTest {
         protected String getShadowed() { return shadowed; }
     }
 
+    @SuppressWarnings("unused")
+    private static class ReplacementType {
+        public int replacementField;
+        public void replacementMethod() { }
+    }
+
     private static class MixinA {
         @Marker
         private static void staticOverride() { }
@@ -413,4 +419,25 @@ public class ResolvedTypeWithMembersTest {
         resolvedMethod = (ResolvedMethod) resolveMethodMethod.invoke(members, rawMethod);
         assertNotNull(resolvedMethod.get(MarkerB.class));
     }
+
+    // Members are resolved from types given by (overridable) allTypesAndOverrides()
+    @Test
+    public void resolveFromAllTypesAndOverrides() {
+        TypeResolver typeResolver = new TypeResolver();
+        HierarchicType candidateType = new HierarchicType(typeResolver.resolve(MixinCandidate.class), false, 0);
+        final HierarchicType replacementType = new HierarchicType(typeResolver.resolve(ReplacementType.class), false, 0);
+        ResolvedTypeWithMembers members = new ResolvedTypeWithMembers(typeResolver, null, candidateType,
+                new HierarchicType[] { candidateType }, null, null, null) {
+            @Override
+            public List<HierarchicType> allTypesAndOverrides() {
+                return Collections.singletonList(replacementType);
+            }
+        };
+        ResolvedField[] fields = members.resolveMemberFields();
+        assertEquals(1, fields.length);
+        assertEquals("replacementField", fields[0].getName());
+        ResolvedMethod[] methods = members.resolveMemberMethods();
+        assertEquals(1, methods.length);
+        assertEquals("replacementMethod", methods[0].getName());
+    }
 }
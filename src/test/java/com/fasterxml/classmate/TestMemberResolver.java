@@ -1,8 +1,25 @@
 package com.fasterxml.classmate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import com.fasterxml.classmate.members.*;
 import com.fasterxml.classmate.types.ResolvedObjectType;
@@ -60,6 +77,26 @@ public class TestMemberResolver extends BaseTest
 
     static class DummyMixIn2 extends DummyMixIn { }
 
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Marker { }
+
+    static class AnnotatedBean
+    {
+        @Marker public int value;
+
+        @Marker public AnnotatedBean() { }
+
+        @Marker public void setValue(@Marker int v) { }
+    }
+
+    // mix-in with annotations for methods of ArrayList
+    static abstract class ListMixIn
+    {
+        @Marker public abstract int size();
+
+        public abstract boolean add(@Marker Object value);
+    }
+
     // simple class extending from Object for config tests (includeObject, filtering, etc)
     @SuppressWarnings("unused")
     static class SimpleClass
@@ -74,6 +111,58 @@ public class TestMemberResolver extends BaseTest
         private String getTest() { return test; }
     }
     
+    // type that is hidden by MissingTypeLoader
+    public static class MissingType { }
+
+    // and type that can be loaded, but whose members can not
+    public static class BrokenBean
+    {
+        public MissingType missing;
+    }
+
+    // as well as one whose type parameter bound can not be loaded
+    public static class BrokenBoundBean<T extends MissingType> { }
+
+    // Loads its own copy of given class, but can not find MissingType
+    static class MissingTypeLoader extends ClassLoader
+    {
+        private final String _className;
+
+        public MissingTypeLoader(Class<?> cls) {
+            super(TestMemberResolver.class.getClassLoader());
+            _className = cls.getName();
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve)
+            throws ClassNotFoundException
+        {
+            if (name.equals(MissingType.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            if (!name.equals(_className)) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> cls = findLoadedClass(name);
+            if (cls == null) {
+                try {
+                    InputStream in = getParent().getResourceAsStream(name.replace('.', '/')+".class");
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[4000];
+                    int count;
+                    while ((count = in.read(buffer)) > 0) {
+                        bytes.write(buffer, 0, count);
+                    }
+                    in.close();
+                    cls = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+            return cls;
+        }
+    }
+
     /*
     /**********************************************************************
     /* setup
@@ -361,11 +450,314 @@ public class TestMemberResolver extends BaseTest
         assertNotNull(members);
     }
 
+    public void testResultCache()
+    {
+        MemberResolver mr = new MemberResolver(typeResolver).setResultCacheSize(2);
+        ResolvedType mainType = typeResolver.resolve(SubClass.class);
+        ResolvedTypeWithMembers bean = mr.resolve(mainType, null, null);
+        verifySubtypeAggregate(bean);
+        assertEquals(1, mr.getResultCacheEntryCount());
+        // same type (even if not same instance), same config: same result
+        assertSame(bean, mr.resolve(typeResolver.resolve(SubClass.class), null, null));
+
+        // but different overrides, or configuration, mean different result
+        AnnotationOverrides overrides = AnnotationOverrides.builder()
+            .add(SubClass.class, DummyMixIn.class)
+            .build();
+        ResolvedTypeWithMembers bean2 = mr.resolve(mainType, null, overrides);
+        assertNotSame(bean, bean2);
+        verifySubtypeAggregate(bean2);
+        assertSame(bean2, mr.resolve(mainType, null, overrides));
+        mr.setIncludeLangObject(true);
+        ResolvedTypeWithMembers bean3 = mr.resolve(mainType, null, null);
+        assertNotSame(bean, bean3);
+        assertEquals(2, mr.getResultCacheEntryCount());
+        mr.setIncludeLangObject(false);
+        // which also evicted the least recently used one
+        assertNotSame(bean, mr.resolve(mainType, null, null));
+
+        // and may be disabled, too
+        mr.setResultCacheSize(0);
+        assertEquals(0, mr.getResultCacheEntryCount());
+        assertNotSame(mr.resolve(mainType, null, null), mr.resolve(mainType, null, null));
+    }
+
+    public void testWarmUp() throws Exception
+    {
+        MemberResolver mr = new MemberResolver(typeResolver);
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            WarmUpReport report = mr.warmUp(Arrays.<java.lang.reflect.Type>asList(SubClass.class, BaseClass.class),
+                    null, null, exec);
+            assertEquals(2, report.getResolvedCount());
+            assertEquals(Arrays.asList(SubClass.class.getName(), BaseClass.class.getName()),
+                    new ArrayList<String>(report.getTimings().keySet()));
+
+            report = mr.warmUpClasses(Arrays.asList(SubClass.class.getName()),
+                    getClass().getClassLoader(), null, null, exec);
+            assertEquals(1, report.getResolvedCount());
+            assertEquals(0, report.getFailures().size());
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    public void testSharedBetweenThreads() throws Exception
+    {
+        final ResolvedTypeWithMembers bean = new MemberResolver(typeResolver)
+            .resolve(typeResolver.resolve(SubClass.class), null, null);
+        final int THREADS = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService exec = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<ResolvedMethod[]>> results = new ArrayList<Future<ResolvedMethod[]>>();
+            for (int i = 0; i < THREADS; ++i) {
+                results.add(exec.submit(new Callable<ResolvedMethod[]>() {
+                    @Override
+                    public ResolvedMethod[] call() throws Exception {
+                        start.await();
+                        verifySubtypeAggregate(bean);
+                        return bean.getMemberMethods();
+                    }
+                }));
+            }
+            start.countDown();
+            // all threads must see the same (single) resolution
+            ResolvedMethod[] methods = bean.getMemberMethods();
+            for (Future<ResolvedMethod[]> result : results) {
+                assertSame(methods, result.get());
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    public void testResolveAll() throws Exception
+    {
+        MemberResolver mr = new MemberResolver(typeResolver);
+        final Map<java.lang.reflect.Type, ResolvedTypeWithMembers> results
+            = new ConcurrentHashMap<java.lang.reflect.Type, ResolvedTypeWithMembers>();
+        final Map<java.lang.reflect.Type, Throwable> failures
+            = new ConcurrentHashMap<java.lang.reflect.Type, Throwable>();
+        MemberResolutionCallback callback = new MemberResolutionCallback() {
+            @Override
+            public void resolved(java.lang.reflect.Type input, ResolvedTypeWithMembers members) {
+                results.put(input, members);
+            }
+
+            @Override
+            public void failed(java.lang.reflect.Type input, Throwable problem) {
+                failures.put(input, problem);
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(2, mr.resolveAll(Arrays.<java.lang.reflect.Type>asList(SubClass.class, BaseClass.class),
+                    null, null, pool, callback));
+            assertEquals(2, results.size());
+            assertEquals(0, failures.size());
+            verifySubtypeAggregate(results.get(SubClass.class));
+            assertEquals(2, results.get(BaseClass.class).getMemberMethods().length);
+            // supertype shared between types
+            assertSame(results.get(BaseClass.class).allTypesAndOverrides().get(0).getType(),
+                    results.get(SubClass.class).allTypesAndOverrides().get(1).getType());
+
+            // and failure of one type should not prevent others from being resolved
+            results.clear();
+            java.lang.reflect.Type bogus = new java.lang.reflect.Type() { };
+            assertEquals(1, mr.resolveAll(Arrays.asList(bogus, SubClass.class), null, null, pool, callback));
+            assertEquals(1, results.size());
+            assertNotNull(results.get(SubClass.class));
+            assertTrue(failures.get(bogus) instanceof IllegalArgumentException);
+
+            // as should Errors from members that can not be loaded
+            results.clear();
+            failures.clear();
+            Class<?> broken = new MissingTypeLoader(BrokenBean.class).loadClass(BrokenBean.class.getName());
+            assertEquals(1, mr.resolveAll(Arrays.<java.lang.reflect.Type>asList(broken, BaseClass.class),
+                    null, null, pool, callback));
+            assertEquals(1, results.size());
+            assertNotNull(results.get(BaseClass.class));
+            assertTrue(failures.get(broken) instanceof NoClassDefFoundError);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testResolveAsync() throws Exception
+    {
+        MemberResolver mr = new MemberResolver(typeResolver);
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                queued.add(task);
+            }
+        };
+        ResolvedType mainType = typeResolver.resolve(SubClass.class);
+        CompletableFuture<ResolvedTypeWithMembers> f1 = mr.resolveAsync(mainType, null, null, executor);
+        CompletableFuture<ResolvedTypeWithMembers> f2 = mr.resolveAsync(mainType, null, null, executor);
+        // different configuration, can not share
+        CompletableFuture<ResolvedTypeWithMembers> f3 = mr.resolveAsync(mainType,
+                new AnnotationConfiguration.StdConfiguration(AnnotationInclusion.INCLUDE_AND_INHERIT),
+                null, executor);
+        assertEquals(2, queued.size());
+        for (Runnable task : queued) {
+            task.run();
+        }
+        assertSame(f1.get(), f2.get());
+        assertNotSame(f1.get(), f3.get());
+        verifySubtypeAggregate(f1.get());
+        verifySubtypeAggregate(f3.get());
+    }
+
+    // Configuration in effect when request is made is used, not that when task runs
+    public void testResolveAsyncUsesConfigAtSubmit() throws Exception
+    {
+        MemberResolver mr = new MemberResolver(typeResolver);
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                queued.add(task);
+            }
+        };
+        ResolvedType mainType = typeResolver.resolve(SubClass.class);
+        CompletableFuture<ResolvedTypeWithMembers> f1 = mr.resolveAsync(mainType, null, null, executor);
+        mr.setFieldFilter(new Filter<RawField>() {
+            @Override public boolean include(RawField element) {
+                return false;
+            }
+        });
+        CompletableFuture<ResolvedTypeWithMembers> f2 = mr.resolveAsync(mainType, null, null, executor);
+        assertEquals(2, queued.size());
+        for (Runnable task : queued) {
+            task.run();
+        }
+        verifySubtypeAggregate(f1.get());
+        assertEquals(0, f2.get().getMemberFields().length);
+    }
+
+    public void testParallelMemberMethods() throws Exception
+    {
+        ResolvedType mainType = typeResolver.resolve(ArrayList.class, String.class);
+        AnnotationConfiguration annotations = new AnnotationConfiguration.StdConfiguration(
+                AnnotationInclusion.INCLUDE_AND_INHERIT);
+        AnnotationOverrides overrides = AnnotationOverrides.builder()
+            .add(ArrayList.class, ListMixIn.class)
+            .build();
+        MemberResolver mr = new MemberResolver(typeResolver).setIncludeLangObject(true);
+        ResolvedMethod[] expected = mr.resolve(mainType, annotations, overrides).getMemberMethods();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // low threshold so that parallel resolution is used
+            mr.setParallelMemberResolution(pool, 1);
+            ResolvedMethod[] actual = mr.resolve(mainType, annotations, overrides).getMemberMethods();
+            assertEquals(expected.length, actual.length);
+            for (int i = 0; i < expected.length; ++i) {
+                ResolvedMethod exp = expected[i];
+                ResolvedMethod act = actual[i];
+                assertSame(exp.getRawMember(), act.getRawMember());
+                assertEquals(exp.getDeclaringType(), act.getDeclaringType());
+                assertEquals(exp.getReturnType(), act.getReturnType());
+                assertEquals(exp.getArgumentCount(), act.getArgumentCount());
+                for (int j = 0; j < exp.getArgumentCount(); ++j) {
+                    assertEquals(exp.getArgumentType(j), act.getArgumentType(j));
+                    assertEquals(exp.getParameterAnnotations(j).toString(),
+                            act.getParameterAnnotations(j).toString());
+                }
+                assertEquals(exp.getAnnotations().toString(), act.getAnnotations().toString());
+            }
+            // and mix-in annotations applied same way
+            ResolvedMethod size = _findMethod(actual, "size");
+            assertNotNull(size.get(Marker.class));
+            ResolvedMethod add = null;
+            for (ResolvedMethod m : actual) {
+                if ("add".equals(m.getName()) && (m.getArgumentCount() == 1)) {
+                    add = m;
+                }
+            }
+            assertNotNull(add.getParameterAnnotations(0).get(Marker.class));
+        } finally {
+            pool.shutdown();
+        }
+
+        try {
+            mr.setParallelMemberResolution(null, 0);
+            fail("Should not pass");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "must be positive");
+        }
+    }
+
+    // Custom configurations may return null inclusion; same as including annotation
+    public void testNullAnnotationInclusion() throws Exception
+    {
+        AnnotationConfiguration annotations = new AnnotationConfiguration.StdConfiguration(null);
+        MemberResolver mr = new MemberResolver(typeResolver);
+        ResolvedTypeWithMembers members = mr.resolve(typeResolver.resolve(AnnotatedBean.class), annotations, null);
+        assertNotNull(members.getMemberFields()[0].get(Marker.class));
+        assertNotNull(members.getConstructors()[0].get(Marker.class));
+        ResolvedMethod m = members.getMemberMethods()[0];
+        assertNotNull(m.get(Marker.class));
+        assertNotNull(m.getParameterAnnotations(0).get(Marker.class));
+    }
+
+    public void testParallelMemberResolutionSerialization() throws Exception
+    {
+        MemberResolver mr = new MemberResolver(typeResolver);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            mr.setParallelMemberResolution(pool, 1);
+            MemberResolver copy = _jdkCopy(mr);
+            assertNotNull(copy._parallelPool);
+            try {
+                assertNotSame(pool, copy._parallelPool);
+                assertEquals(3, copy._parallelPool.getParallelism());
+                assertEquals(1, copy._cfgParallelThreshold);
+                ResolvedTypeWithMembers members = copy.resolve(copy._typeResolver.resolve(SubClass.class),
+                        null, null);
+                verifySubtypeAggregate(members);
+            } finally {
+                copy._parallelPool.shutdown();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        // common pool is not copied
+        mr.setParallelMemberResolution(ForkJoinPool.commonPool(), 10);
+        assertSame(ForkJoinPool.commonPool(), _jdkCopy(mr)._parallelPool);
+        // nor is anything created if not enabled
+        mr.setParallelMemberResolution(null, 10);
+        assertNull(_jdkCopy(mr)._parallelPool);
+    }
+
     /*
     /**********************************************************************
     /* Helper methods
     /**********************************************************************
      */
+
+    private MemberResolver _jdkCopy(MemberResolver mr) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(mr);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        return (MemberResolver) in.readObject();
+    }
+
+    private ResolvedMethod _findMethod(ResolvedMethod[] methods, String name)
+    {
+        for (ResolvedMethod m : methods) {
+            if (name.equals(m.getName())) {
+                return m;
+            }
+        }
+        return null;
+    }
     
     private void verifySubtypeAggregate(ResolvedTypeWithMembers bean)
     {
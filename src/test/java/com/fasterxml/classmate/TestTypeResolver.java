@@ -1,13 +1,29 @@
 package com.fasterxml.classmate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.*;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import com.fasterxml.classmate.members.RawMethod;
 import com.fasterxml.classmate.members.ResolvedMethod;
 import com.fasterxml.classmate.types.*;
+import com.fasterxml.classmate.util.CacheStats;
 import com.fasterxml.classmate.util.ClassKey;
+import com.fasterxml.classmate.util.ResolvedTypeCache;
 import com.fasterxml.classmate.util.ResolvedTypeKey;
+import com.fasterxml.classmate.util.TestClassMembers;
 
 @SuppressWarnings("serial")
 public class TestTypeResolver extends BaseTest
@@ -18,6 +34,21 @@ public class TestTypeResolver extends BaseTest
     /**********************************************************************
      */
 
+    /**
+     * Resolves JDK classes using per-class slots, when run with a separately
+     * loaded copy of the library.
+     */
+    public static class RawJDKClassesTask implements Runnable
+    {
+        @Override
+        public void run() {
+            TypeResolver resolver = new TypeResolver().withRawClassCache(true);
+            resolver.resolve(String.class);
+            resolver.resolve(Object.class);
+            resolver.resolve(ArrayList.class);
+        }
+    }
+
     // // Multi-level resolution needed
 
     static class MyStringLongMap extends MyStringKeyMap<Long> { }
@@ -57,6 +88,13 @@ public class TestTypeResolver extends BaseTest
         public IntermediateList<String> value;
     }
 
+    static class ListArrays {
+        public List<String>[] strings;
+        public List<Long>[] longs;
+        public List<String>[][] stringMatrix;
+        public List<Integer>[][] intMatrix;
+    }
+
     // For testing failure in subtype resolution with generic parameters
 
     static class Params<T> { }
@@ -179,6 +217,70 @@ public class TestTypeResolver extends BaseTest
         assertSame(elemType, arrayType3.getArrayElementType());
     }    
 
+    public void testArrayTypeCaching() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        ResolvedType arrayType = resolver.resolve(byte[][].class);
+        assertSame(arrayType, resolver.resolve(byte[][].class));
+        assertSame(arrayType, resolver.arrayType(byte[].class));
+        assertSame(arrayType.getArrayElementType(), resolver.arrayType(Byte.TYPE));
+
+        // generic arrays are cached by element type
+        Type listArray = ListArrays.class.getField("strings").getGenericType();
+        ResolvedType stringListArray = resolver.resolve(TypeBindings.emptyBindings(), listArray);
+        assertSame(List[].class, stringListArray.getErasedType());
+        assertEquals(resolver.resolve(List.class, String.class), stringListArray.getArrayElementType());
+        assertSame(stringListArray, resolver.resolve(TypeBindings.emptyBindings(), listArray));
+        assertSame(stringListArray, resolver.arrayType(resolver.resolve(List.class, String.class)));
+
+        // but differently parameterized element types, or raw ones, are different
+        Type longListArray = ListArrays.class.getField("longs").getGenericType();
+        ResolvedType longArrayType = resolver.resolve(TypeBindings.emptyBindings(), longListArray);
+        assertNotSame(stringListArray, longArrayType);
+        assertEquals(resolver.resolve(List.class, Long.class), longArrayType.getArrayElementType());
+        ResolvedType rawArrayType = resolver.resolve(List[].class);
+        assertNotSame(stringListArray, rawArrayType);
+        assertEquals(0, rawArrayType.getArrayElementType().getTypeParameters().size());
+    }
+
+    // multi-dimensional generic arrays must not share cache entries
+    public void testMultiDimensionalArrayTypeCaching() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        ResolvedType strings = resolver.resolve(TypeBindings.emptyBindings(),
+                ListArrays.class.getField("stringMatrix").getGenericType());
+        ResolvedType ints = resolver.resolve(TypeBindings.emptyBindings(),
+                ListArrays.class.getField("intMatrix").getGenericType());
+        assertSame(List[][].class, ints.getErasedType());
+        assertEquals(resolver.resolve(List.class, String.class),
+                strings.getArrayElementType().getArrayElementType());
+        assertEquals(resolver.resolve(List.class, Integer.class),
+                ints.getArrayElementType().getArrayElementType());
+        assertNotSame(strings, ints);
+
+        ResolvedType ints2 = resolver.arrayType(resolver.arrayType(resolver.resolve(List.class, Integer.class)));
+        assertSame(ints, ints2);
+        assertEquals("java.util.List<java.lang.Integer>[][]", ints2.getBriefDescription());
+
+        // and raw ones are separate from both
+        ResolvedType raw = resolver.resolve(List[][].class);
+        assertNotSame(strings, raw);
+        assertNotSame(ints, raw);
+        assertEquals(0, raw.getArrayElementType().getArrayElementType().getTypeParameters().size());
+    }
+
+    // Bounds of type variables should only be needed for unbound variables
+    public void testUnloadableBoundNotNeeded() throws Exception
+    {
+        Class<?> cls = new TestMemberResolver.MissingTypeLoader(TestMemberResolver.BrokenBoundBean.class)
+            .loadClass(TestMemberResolver.BrokenBoundBean.class.getName());
+        TypeResolver resolver = new TypeResolver();
+        ResolvedType type = resolver.resolve(cls, String.class);
+        assertEquals(1, type.getTypeParameters().size());
+        assertSame(String.class, type.getTypeParameters().get(0).getErasedType());
+        assertSame(cls, resolver.resolve(cls).getErasedType());
+    }
+
     public void testGenericMap()
     {
         // First, direct ref
@@ -505,6 +607,387 @@ public class TestTypeResolver extends BaseTest
         assertFalse((Boolean) typesMatchMethod.invoke(typeResolver, matchBListResolved, matchAListResolved));
     }
     
+    public void testRawClassCache()
+    {
+        TypeResolver resolver = new TypeResolver();
+        TypeResolver fast = resolver.withRawClassCache(true);
+        assertNotSame(resolver, fast);
+        assertSame(fast, fast.withRawClassCache(true));
+
+        ResolvedType t1 = fast.resolve(StringListWrapper.class);
+        assertSame(StringListWrapper.class, t1.getErasedType());
+        assertSame(t1, fast.resolve(StringListWrapper.class));
+        // same as without fast path
+        assertEquals(resolver.resolve(StringListWrapper.class), t1);
+        // and primitives handled just the same
+        assertSame(resolver.resolve(Integer.TYPE), fast.resolve(Integer.TYPE));
+        // parameterized resolution unaffected
+        ResolvedType listType = fast.resolve(List.class, String.class);
+        assertEquals(1, listType.getTypeParameters().size());
+
+        // slots are per-resolver, not shared with other resolvers
+        TypeResolver fast2 = new TypeResolver().withRawClassCache(true);
+        ResolvedType t2 = fast2.resolve(StringListWrapper.class);
+        assertNotSame(t1, t2);
+        assertEquals(t1, t2);
+        assertSame(t2, fast2.resolve(StringListWrapper.class));
+    }
+
+    // clearing type cache, or interned types, must also invalidate per-class slots
+    public void testRawClassCacheAfterClear()
+    {
+        ResolvedTypeCache cache = ResolvedTypeCache.lruCache(200);
+        TypeResolver fast = new TypeResolver(cache).withRawClassCache(true);
+        ResolvedType t1 = fast.resolve(StringListWrapper.class);
+        cache.clear();
+        ResolvedType t2 = fast.resolve(StringListWrapper.class);
+        assertNotSame(t1, t2);
+        assertEquals(t1, t2);
+        assertSame(t2, fast.resolve(StringListWrapper.class));
+        assertSame(t2, fast.resolve(TypeBindings.emptyBindings(), StringListWrapper.class));
+
+        // tiny cache, so that canonical instances do not come from it
+        TypeResolver interning = new TypeResolver(ResolvedTypeCache.lruCache(1))
+            .withInterning(true).withRawClassCache(true);
+        t1 = interning.resolve(StringListWrapper.class);
+        assertSame(t1, interning.resolve(StringListWrapper.class));
+        interning.clearInternedTypes();
+        interning.resolve(Long.class);
+        t2 = interning.resolve(TypeBindings.emptyBindings(), StringListWrapper.class);
+        assertNotSame(t1, t2);
+        // canonical instance regardless of how it is resolved
+        assertSame(t2, interning.resolve(StringListWrapper.class));
+    }
+
+    // JDK classes are not given slots (that would pin our loader), but use the type cache
+    public void testRawClassCacheWithJDKClasses() throws Exception
+    {
+        TypeResolver fast = new TypeResolver(ResolvedTypeCache.lruCache(200)).withRawClassCache(true);
+        ResolvedType t1 = fast.resolve(ArrayList.class);
+        long hits = fast.cacheStats().hitCount();
+        assertSame(t1, fast.resolve(ArrayList.class));
+        assertEquals(hits + 1, fast.cacheStats().hitCount());
+
+        WeakReference<ClassLoader> loaderRef = TestClassMembers.runWithIsolatedLibrary(RawJDKClassesTask.class);
+        for (int i = 0; i < 50 && loaderRef.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+        assertNull("Library class loader should have been garbage collected", loaderRef.get());
+    }
+
+    public void testInterning() throws Exception
+    {
+        // use tiny cache, to ensure canonical instances do not rely on it
+        TypeResolver plain = new TypeResolver(ResolvedTypeCache.lruCache(1));
+        TypeResolver resolver = plain.withInterning(true);
+        assertNotSame(plain, resolver);
+        assertSame(resolver, resolver.withInterning(true));
+
+        ResolvedType listType = resolver.resolve(List.class, String.class);
+        ResolvedType wrapperType = resolver.resolve(StringListWrapper.class);
+        assertSame(listType, resolver.resolve(List.class, String.class));
+        // nested types canonical as well
+        ResolvedType superType = wrapperType.getParentClass();
+        Method m = ListWrapper.class.getMethod("wrap");
+        assertSame(listType, resolver.resolve(superType.getTypeBindings(), m.getGenericReturnType()));
+        assertSame(resolver.resolve(String.class), listType.getTypeParameters().get(0));
+        // as are arrays
+        assertSame(resolver.arrayType(String.class), resolver.resolve(String[].class));
+        assertSame(resolver.arrayType(listType), resolver.arrayType(listType));
+        assertTrue(resolver.getInternedTypeCount() > 0);
+
+        // but not shared with other resolvers, and not used when disabled
+        assertNotSame(listType, plain.resolve(List.class, String.class));
+        assertEquals(listType, plain.resolve(List.class, String.class));
+        assertEquals(0, plain.getInternedTypeCount());
+
+        resolver.clearInternedTypes();
+        assertEquals(0, resolver.getInternedTypeCount());
+        assertNotSame(listType, resolver.resolve(List.class, String.class));
+    }
+
+    public void testGenericTypeMemo() throws Exception
+    {
+        TypeResolver plain = new TypeResolver();
+        TypeResolver resolver = plain.withGenericTypeMemo(2);
+        assertSame(resolver, resolver.withGenericTypeMemo(2));
+        assertEquals(0, plain.withGenericTypeMemo(0).getGenericTypeMemoEntryCount());
+
+        ResolvedType wrapperType = resolver.resolve(StringListWrapper.class);
+        TypeBindings bindings = wrapperType.getParentClass().getTypeBindings();
+        Type returnType = ListWrapper.class.getMethod("wrap").getGenericReturnType();
+        ResolvedType listType = resolver.resolve(bindings, returnType);
+        assertEquals(plain.resolve(List.class, String.class), listType);
+        assertEquals(1, resolver.getGenericTypeMemoEntryCount());
+        assertSame(listType, resolver.resolve(bindings, returnType));
+        assertEquals(1, resolver.getGenericTypeMemoEntryCount());
+        // classes not memoized
+        resolver.resolve(bindings, String.class);
+        assertEquals(1, resolver.getGenericTypeMemoEntryCount());
+
+        // different bindings (even if equal) are different keys
+        TypeBindings otherBindings = TypeBindings.create(ListWrapper.class,
+                new ResolvedType[] { plain.resolve(Long.class) });
+        assertEquals(plain.resolve(List.class, Long.class), resolver.resolve(otherBindings, returnType));
+        assertEquals(2, resolver.getGenericTypeMemoEntryCount());
+        // and memo is bounded
+        resolver.resolve(TypeBindings.create(ListWrapper.class,
+                new ResolvedType[] { plain.resolve(Integer.class) }), returnType);
+        assertEquals(2, resolver.getGenericTypeMemoEntryCount());
+        assertEquals(0, plain.getGenericTypeMemoEntryCount());
+
+        // but only some of entries are dropped when full
+        TypeResolver larger = plain.withGenericTypeMemo(8);
+        Class<?>[] classes = new Class<?>[] { String.class, Long.class, Integer.class, Short.class,
+                Byte.class, Double.class, Float.class, Boolean.class, Character.class, Object.class };
+        for (Class<?> cls : classes) {
+            larger.resolve(TypeBindings.create(ListWrapper.class,
+                    new ResolvedType[] { plain.resolve(cls) }), returnType);
+            assertTrue(larger.getGenericTypeMemoEntryCount() <= 8);
+        }
+        // 8 entries, minus 2 dropped, plus 2 added after that
+        assertEquals(8, larger.getGenericTypeMemoEntryCount());
+    }
+
+    public void testResolveAll()
+    {
+        // cache too small to hold shared supertypes
+        ResolvedTypeCache cache = ResolvedTypeCache.lruCache(2);
+        TypeResolver resolver = new TypeResolver(cache);
+        List<ResolvedType> types = resolver.resolveAll(Arrays.<Type>asList(ArrayList.class,
+                new GenericType<List<String>>() { }, ArrayList.class, LinkedList.class));
+        assertEquals(4, types.size());
+        assertEquals(ArrayList.class, types.get(0).getErasedType());
+        assertEquals(List.class, types.get(1).getErasedType());
+        assertSame(types.get(0), types.get(2));
+        assertEquals(LinkedList.class, types.get(3).getErasedType());
+
+        // AbstractList<E> constructed only once within batch
+        ResolvedType abstractList = types.get(0).getParentClass();
+        assertEquals(AbstractList.class, abstractList.getErasedType());
+        assertSame(abstractList, types.get(3).getParentClass().getParentClass());
+
+        // and most recently constructed types added to shared cache (others
+        // would just get evicted)
+        assertEquals(2, cache.size());
+        assertEquals(2L, resolver.cacheStats().putCount());
+        assertSame(types.get(3), resolver.resolve(LinkedList.class));
+        assertEquals(0, resolver.resolveAll(Collections.<Type>emptyList()).size());
+    }
+
+    public void testResolveAsync() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver().withRawClassCache(true);
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                queued.add(task);
+            }
+        };
+        // concurrent requests for same type share single task
+        CompletableFuture<ResolvedType> f1 = resolver.resolveAsync(StringListWrapper.class, executor);
+        CompletableFuture<ResolvedType> f2 = resolver.resolveAsync(StringListWrapper.class, executor);
+        assertEquals(1, queued.size());
+        assertFalse(f1.isDone());
+        assertFalse(f2.isDone());
+        // but cancelling one does not affect others
+        assertTrue(f2.cancel(false));
+        queued.remove(0).run();
+        ResolvedType type = f1.get();
+        assertEquals(StringListWrapper.class, type.getErasedType());
+        assertTrue(f2.isCancelled());
+
+        // once resolved (and kept in per-class slot), no need to use executor
+        CompletableFuture<ResolvedType> f3 = resolver.resolveAsync(StringListWrapper.class, executor);
+        assertTrue(f3.isDone());
+        assertSame(type, f3.get());
+        assertSame(type, resolver.resolveAsync(type, executor).get());
+        assertEquals(0, queued.size());
+
+        // and failures are reported via future
+        CompletableFuture<ResolvedType> f4 = resolver.resolveAsync(new Type() { }, executor);
+        queued.remove(0).run();
+        try {
+            f4.get();
+            fail("Expected exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        // type cache statistics same as with synchronous resolution
+        TypeResolver sync = new TypeResolver();
+        sync.resolve(LinkedList.class);
+        TypeResolver async = new TypeResolver();
+        CompletableFuture<ResolvedType> f5 = async.resolveAsync(LinkedList.class, executor);
+        queued.remove(0).run();
+        assertEquals(LinkedList.class, f5.get().getErasedType());
+        assertEquals(sync.cacheStats().missCount(), async.cacheStats().missCount());
+        assertEquals(sync.cacheStats().hitCount(), async.cacheStats().hitCount());
+    }
+
+    public void testCacheStatsAndMBean() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        resolver.resolve(StringListWrapper.class);
+        resolver.resolve(StringListWrapper.class);
+        CacheStats stats = resolver.cacheStats();
+        assertTrue(stats.hitCount() > 0L);
+        assertTrue(stats.missCount() > 0L);
+        assertEquals(stats.missCount(), stats.putCount());
+        assertTrue(stats.totalLoadTime() > 0L);
+
+        ObjectName name = resolver.registerCacheMBean("test-"+System.identityHashCode(resolver));
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(Long.valueOf(stats.hitCount()), server.getAttribute(name, "HitCount"));
+            assertEquals(Long.valueOf(stats.putCount()), server.getAttribute(name, "PutCount"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+
+    public void testWarmUp() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            List<Type> types = new ArrayList<Type>();
+            types.add(StringListWrapper.class);
+            types.add(new GenericType<Map<String,Long>>() { });
+            WarmUpReport report = resolver.warmUp(types, exec);
+            assertEquals(2, report.getResolvedCount());
+            assertEquals(0, report.getFailures().size());
+            assertTrue(report.getTimings().containsKey(StringListWrapper.class.getName()));
+            assertTrue(report.getElapsedTime() > 0L);
+            assertTrue(report.getTotalTime() > 0L);
+            // and should now be cached, including supertypes
+            long misses = resolver.cacheStats().missCount();
+            resolver.resolve(StringListWrapper.class);
+            resolver.resolve(Map.class, String.class, Long.class);
+            assertEquals(misses, resolver.cacheStats().missCount());
+
+            // and by name; including failure for missing class
+            report = resolver.warmUpClasses(Arrays.asList(HashMap.class.getName(), "no.such.Class"),
+                    getClass().getClassLoader(), exec);
+            assertEquals(1, report.getResolvedCount());
+            assertEquals(Collections.singleton("no.such.Class"), report.getFailures().keySet());
+            assertTrue(report.getFailures().get("no.such.Class") instanceof ClassNotFoundException);
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    // Duplicate inputs each get their own entry in report
+    public void testWarmUpWithDuplicates() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            WarmUpReport report = resolver.warmUpClasses(Arrays.asList("no.such.Class",
+                    HashMap.class.getName(), "no.such.Class", HashMap.class.getName()),
+                    getClass().getClassLoader(), exec);
+            assertEquals(2, report.getResolvedCount());
+            assertEquals(2, report.getFailedCount());
+            List<WarmUpReport.Entry> entries = report.getEntries();
+            assertEquals(4, entries.size());
+            for (int i = 0; i < 4; ++i) {
+                WarmUpReport.Entry entry = entries.get(i);
+                assertEquals(i, entry.getIndex());
+                assertEquals((i % 2) == 1, entry.isResolved());
+            }
+            assertEquals(HashMap.class.getName(), entries.get(3).getName());
+            assertTrue(entries.get(2).getFailure() instanceof ClassNotFoundException);
+            assertEquals(entries.get(1).getTime() + entries.get(3).getTime(), report.getTotalTime());
+            // name-keyed views have just one entry per name
+            assertEquals(1, report.getTimings().size());
+            assertEquals(1, report.getFailures().size());
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    public void testCacheSnapshot() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        ResolvedType selfRef = resolver.resolve(SelfRefType.class);
+        ResolvedType hashTree = resolver.resolve(HashTree.class, String.class, Long.class);
+        ResolvedType wrapperArray = resolver.resolve(StringListWrapper[].class);
+        ResolvedType enumType = resolver.resolve(java.util.concurrent.TimeUnit.class);
+        ResolvedType longMap = resolver.resolve(MyStringLongMap.class);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int written = resolver.writeCacheSnapshot(bytes);
+        assertEquals(resolver.cacheStats().putCount(), written);
+
+        TypeResolver resolver2 = new TypeResolver();
+        int read = resolver2.readCacheSnapshot(new ByteArrayInputStream(bytes.toByteArray()),
+                getClass().getClassLoader());
+        assertEquals(written, read);
+
+        // Should now be able to resolve all without cache misses
+        assertEquals(selfRef, resolver2.resolve(SelfRefType.class));
+        assertEquals(hashTree, resolver2.resolve(HashTree.class, String.class, Long.class));
+        assertEquals(wrapperArray, resolver2.resolve(StringListWrapper[].class));
+        assertEquals(enumType, resolver2.resolve(java.util.concurrent.TimeUnit.class));
+        ResolvedType longMap2 = resolver2.resolve(MyStringLongMap.class);
+        assertEquals(longMap, longMap2);
+        assertEquals(0L, resolver2.cacheStats().missCount());
+
+        // and with proper structure
+        assertEquals(longMap.getFullDescription(), longMap2.getFullDescription());
+        assertEquals(longMap.typeParametersFor(Map.class), longMap2.typeParametersFor(Map.class));
+        ResolvedType comparable = resolver2.resolve(SelfRefType.class).getImplementedInterfaces().get(0);
+        ResolvedType self = comparable.getTypeParameters().get(0);
+        assertTrue(TypeResolver.isSelfReference(self));
+        assertSame(SelfRefType.class, self.getSelfReferencedType().getErasedType());
+        ResolvedType enumParent = resolver2.resolve(java.util.concurrent.TimeUnit.class).getParentClass();
+        assertSame(Enum.class, enumParent.getErasedType());
+        assertEquals(enumType.getParentClass().getFullDescription(), enumParent.getFullDescription());
+    }
+
+    public void testCacheSnapshotWithMissingClass() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver();
+        resolver.resolve(MyStringLongMap.class);
+        resolver.resolve(StringListWrapper.class);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        resolver.writeCacheSnapshot(bytes);
+
+        // Hide one of the classes: types that refer to it must be skipped
+        final String hidden = MyStringKeyMap.class.getName();
+        ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.equals(hidden)) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        TypeResolver resolver2 = new TypeResolver();
+        resolver2.readCacheSnapshot(new ByteArrayInputStream(bytes.toByteArray()), loader);
+        for (ResolvedType type : resolver2._resolvedTypes.contents()) {
+            assertNotSame(MyStringLongMap.class, type.getErasedType());
+            assertNotSame(MyStringKeyMap.class, type.getErasedType());
+        }
+        // but others are fine
+        resolver2.resolve(StringListWrapper.class);
+        assertEquals(0L, resolver2.cacheStats().missCount());
+    }
+
+    public void testCacheSnapshotInvalid() throws Exception
+    {
+        try {
+            new TypeResolver().readCacheSnapshot(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 }),
+                    getClass().getClassLoader());
+            fail("Should not pass");
+        } catch (IOException e) {
+            verifyException(e, "Not a type cache snapshot");
+        }
+    }
+
     /*
     /**********************************************************************
     /* Helper methods
@@ -1,9 +1,11 @@
 package com.fasterxml.classmate;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.util.*;
 
 import com.fasterxml.classmate.types.ResolvedObjectType;
+import com.fasterxml.classmate.util.TestClassMembers;
 
 import org.junit.Test;
 
@@ -118,4 +120,78 @@ public class TypeBindingsTest
         assertTrue(instance4.equals(instance3));
     }
 
+    static class Wide<A, B, C, D, E> {
+        public <E> E method(D arg) { return null; }
+    }
+
+    @Test
+    public void findBoundTypeByVariable() throws Exception {
+        ResolvedType[] types = new ResolvedType[5];
+        Class<?>[] classes = new Class<?>[] { String.class, Long.class, Integer.class, Short.class, Byte.class };
+        for (int i = 0; i < types.length; ++i) {
+            types[i] = ResolvedObjectType.create(classes[i], TypeBindings.emptyBindings(), null, null);
+        }
+        TypeBindings instance = TypeBindings.create(Wide.class, types);
+        java.lang.reflect.TypeVariable<?>[] vars = Wide.class.getTypeParameters();
+        for (int i = 0; i < vars.length; ++i) {
+            assertSame(types[i], instance.findBoundType(vars[i]));
+        }
+        // also for variables from member signatures (different instances)
+        java.lang.reflect.Method m = Wide.class.getMethod("method", Object.class);
+        assertSame(types[3], instance.findBoundType(
+                (java.lang.reflect.TypeVariable<?>) m.getGenericParameterTypes()[0]));
+        // and for method type variables, same as matching by name (for backwards compatibility)
+        assertSame(types[4], instance.findBoundType(
+                (java.lang.reflect.TypeVariable<?>) m.getGenericReturnType()));
+        // but not for other classes' variables without matching name
+        assertNull(instance.findBoundType(Map.class.getTypeParameters()[0]));
+    }
+
+    @Test
+    public void typeParametersShared() throws Exception {
+        Field namesField = TypeBindings.class.getDeclaredField("_names");
+        namesField.setAccessible(true);
+        ResolvedType stringType = ResolvedObjectType.create(String.class, TypeBindings.emptyBindings(), null, null);
+        ResolvedType longType = ResolvedObjectType.create(Long.class, TypeBindings.emptyBindings(), null, null);
+        TypeBindings b1 = TypeBindings.create(Comparable.class, Arrays.asList(stringType));
+        TypeBindings b2 = TypeBindings.create(Comparable.class, Arrays.asList(longType));
+        assertSame(namesField.get(b1), namesField.get(b2));
+        assertEquals("T", b2.getBoundName(0));
+
+        TypeParameters params = TypeParameters.forClass(Wide.class);
+        assertSame(params, TypeParameters.forClass(Wide.class));
+        assertEquals(5, params.arity());
+        assertEquals(Object.class, params.firstBound(0));
+        assertEquals(Object.class, TypeParameters.firstBound(Wide.class.getTypeParameters()[4]));
+        // no type parameters: no bindings either
+        assertSame(TypeBindings.emptyBindings(), TypeBindings.create(String.class, (List<ResolvedType>) null));
+    }
+
+    /**
+     * Resolves parameterized JDK types (and members of {@link Object}), when run
+     * with a separately loaded copy of the library.
+     */
+    public static class JDKTypesTask implements Runnable
+    {
+        @Override
+        public void run() {
+            TypeResolver typeResolver = new TypeResolver();
+            typeResolver.resolve(Map.class, String.class, Integer.class);
+            typeResolver.resolve(List.class, typeResolver.resolve(List.class, String.class));
+            MemberResolver memberResolver = new MemberResolver(typeResolver);
+            memberResolver.setIncludeLangObject(true);
+            memberResolver.resolve(typeResolver.resolve(Object.class), null, null).getMemberMethods();
+        }
+    }
+
+    // Type parameters of JDK classes must not keep the library loader from being unloaded
+    @Test
+    public void libraryLoaderCanBeCollected() throws Exception {
+        WeakReference<ClassLoader> loaderRef = TestClassMembers.runWithIsolatedLibrary(JDKTypesTask.class);
+        for (int i = 0; i < 50 && loaderRef.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+        assertNull("Library class loader should have been garbage collected", loaderRef.get());
+    }
 }
@@ -128,4 +128,37 @@ public class ResolvedObjectTypeTest extends BaseTest
         assertEquals(0, constructors.size());
     }
 
+    @Test
+    public void testMemberListsCached() {
+        ResolvedObjectType type = ResolvedObjectType.create(NoExplicitConstructor.class, null, null, Collections.<ResolvedType>emptyList());
+        List<RawConstructor> constructors = type.getConstructors();
+        assertSame(constructors, type.getConstructors());
+        assertSame(type.getMemberMethods(), type.getMemberMethods());
+        assertSame(type.getStaticFields(), type.getStaticFields());
+        try {
+            constructors.clear();
+            fail("Should not be able to modify");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(1, type.getConstructors().size());
+    }
+
+    // Member arrays remain the source of members, for sub-classes that assign them
+    @Test
+    public void testMemberArraysUsedByAccessors() throws Exception {
+        ResolvedObjectType type = ResolvedObjectType.create(NoExplicitConstructor.class, null, null, Collections.<ResolvedType>emptyList());
+        assertEquals(0, type.getMemberFields().size());
+        assertSame(type.getMemberFields(), type.getMemberFields());
+
+        RawField field = new RawField(type, Integer.class.getField("MAX_VALUE"));
+        type._memberFields = new RawField[] { field };
+        List<RawField> fields = type.getMemberFields();
+        assertEquals(Collections.singletonList(field), fields);
+        assertSame(fields, type.getMemberFields());
+
+        ResolvedInterfaceType ifType = new ResolvedInterfaceType(NoConstructor.class, null, null);
+        ifType._constantFields = new RawField[] { field };
+        assertEquals(Collections.singletonList(field), ifType.getStaticFields());
+    }
 }
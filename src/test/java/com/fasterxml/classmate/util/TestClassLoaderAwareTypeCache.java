@@ -0,0 +1,138 @@
+package com.fasterxml.classmate.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+
+import junit.framework.TestCase;
+
+public class TestClassLoaderAwareTypeCache extends TestCase
+{
+    @SuppressWarnings("serial")
+    public static class IsolatedBean extends ArrayList<String>
+        implements Comparable<IsolatedBean>
+    {
+        @Override
+        public int compareTo(IsolatedBean o) { return 0; }
+    }
+
+    /**
+     * Class loader that loads {@link IsolatedBean} itself, instead of delegating
+     * to parent.
+     */
+    static class IsolatingLoader extends ClassLoader
+    {
+        public IsolatingLoader() {
+            super(TestClassLoaderAwareTypeCache.class.getClassLoader());
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve)
+            throws ClassNotFoundException
+        {
+            if (!name.equals(IsolatedBean.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> cls = findLoadedClass(name);
+            if (cls == null) {
+                byte[] data = _read(name.replace('.', '/')+".class");
+                cls = defineClass(name, data, 0, data.length);
+            }
+            return cls;
+        }
+
+        private byte[] _read(String resource) throws ClassNotFoundException
+        {
+            try {
+                InputStream in = getParent().getResourceAsStream(resource);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4000];
+                int count;
+                while ((count = in.read(buffer)) > 0) {
+                    bytes.write(buffer, 0, count);
+                }
+                in.close();
+                return bytes.toByteArray();
+            } catch (Exception e) {
+                throw new ClassNotFoundException(resource, e);
+            }
+        }
+    }
+
+    public void testSimpleCaching()
+    {
+        ClassLoaderAwareTypeCache cache = (ClassLoaderAwareTypeCache) ResolvedTypeCache.classLoaderAwareCache(10);
+        TypeResolver resolver = new TypeResolver(cache);
+        ResolvedType mapType = resolver.resolve(Map.class, String.class, Integer.class);
+        assertTrue(cache.size() > 0);
+        assertEquals(0, cache.partitionCount());
+        assertSame(mapType, resolver.resolve(Map.class, String.class, Integer.class));
+    }
+
+    public void testLoaderCanBeCollected() throws Exception
+    {
+        ClassLoaderAwareTypeCache cache = (ClassLoaderAwareTypeCache) ResolvedTypeCache.classLoaderAwareCache(10);
+        TypeResolver resolver = new TypeResolver(cache);
+        int sharedSize = cache.size();
+        WeakReference<ClassLoader> loaderRef = _resolveWithIsolatedLoader(resolver, cache);
+        assertEquals(1, cache.partitionCount());
+        assertTrue(cache.size() > sharedSize);
+
+        _waitForCollection(loaderRef);
+        assertNull("Isolated class loader should have been garbage collected", loaderRef.get());
+        assertEquals(0, cache.partitionCount());
+
+        // and resolver still usable
+        assertNotNull(resolver.resolve(List.class, String.class));
+    }
+
+    // Also verify that per-class slots do not retain loaders either
+    public void testLoaderCanBeCollectedWithRawClassCache() throws Exception
+    {
+        ClassLoaderAwareTypeCache cache = (ClassLoaderAwareTypeCache) ResolvedTypeCache.classLoaderAwareCache(10);
+        TypeResolver resolver = new TypeResolver(cache).withRawClassCache(true);
+        WeakReference<ClassLoader> loaderRef = _resolveWithIsolatedLoader(resolver, cache);
+        _waitForCollection(loaderRef);
+        assertNull("Isolated class loader should have been garbage collected", loaderRef.get());
+    }
+
+    // Sanity check: with basic LRU cache, loader is retained by cache
+    public void testLoaderRetainedByLRUCache() throws Exception
+    {
+        TypeResolver resolver = new TypeResolver(ResolvedTypeCache.lruCache(10));
+        WeakReference<ClassLoader> loaderRef = _resolveWithIsolatedLoader(resolver, null);
+        _waitForCollection(loaderRef);
+        assertNotNull(loaderRef.get());
+    }
+
+    private WeakReference<ClassLoader> _resolveWithIsolatedLoader(TypeResolver resolver,
+            ClassLoaderAwareTypeCache cache) throws Exception
+    {
+        ClassLoader loader = new IsolatingLoader();
+        Class<?> cls = loader.loadClass(IsolatedBean.class.getName());
+        assertNotSame(IsolatedBean.class, cls);
+
+        ResolvedType type = resolver.resolve(cls);
+        assertSame(cls, type.getErasedType());
+        assertSame(type, resolver.resolve(cls));
+        // as well as type parameterized with isolated class
+        ResolvedType listType = resolver.resolve(List.class, cls);
+        assertSame(cls, listType.getTypeParameters().get(0).getErasedType());
+        if (cache != null) {
+            assertSame(listType, resolver.resolve(List.class, cls));
+        }
+        return new WeakReference<ClassLoader>(loader);
+    }
+
+    private void _waitForCollection(WeakReference<?> ref) throws InterruptedException
+    {
+        for (int i = 0; i < 50 && ref.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.fasterxml.classmate.util;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+import com.fasterxml.classmate.members.RawField;
+import com.fasterxml.classmate.members.RawMethod;
+
+import junit.framework.TestCase;
+
+public class TestClassMembers extends TestCase
+{
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Marker { }
+
+    static class Generic<T> {
+        public static int COUNT;
+
+        public T value;
+
+        public Generic(@Marker T value) { this.value = value; }
+
+        public List<T> wrap(@Marker T value, int count) { return null; }
+
+        public static void reset() { }
+    }
+
+    // non-static inner class, to get synthetic field for outer instance
+    class Inner {
+        public int x;
+    }
+
+    /**
+     * Accesses members of {@link Object}, when run with a separately loaded
+     * copy of the library.
+     */
+    public static class ObjectMembersTask implements Runnable
+    {
+        @Override
+        public void run() {
+            ClassMembers members = ClassMembers.forClass(Object.class);
+            for (Method m : members.methods(false)) {
+                members.genericParameterTypes(m);
+            }
+        }
+    }
+
+    public void testSharedBetweenParameterizations()
+    {
+        TypeResolver resolver = new TypeResolver();
+        ResolvedType stringType = resolver.resolve(Generic.class, String.class);
+        ResolvedType longType = resolver.resolve(Generic.class, Long.class);
+        assertNotSame(stringType, longType);
+
+        List<RawMethod> methods1 = stringType.getMemberMethods();
+        List<RawMethod> methods2 = longType.getMemberMethods();
+        assertEquals(1, methods1.size());
+        assertSame(methods1.get(0).getRawMember(), methods2.get(0).getRawMember());
+        // but raw members themselves are specific to parameterization
+        assertSame(stringType, methods1.get(0).getDeclaringType());
+        assertSame(longType, methods2.get(0).getDeclaringType());
+
+        List<RawField> fields1 = stringType.getMemberFields();
+        assertEquals(1, fields1.size());
+        assertSame(fields1.get(0).getRawMember(), longType.getMemberFields().get(0).getRawMember());
+        assertEquals(1, stringType.getStaticFields().size());
+        assertEquals(1, stringType.getStaticMethods().size());
+        assertSame(stringType.getConstructors().get(0).getRawMember(),
+                longType.getConstructors().get(0).getRawMember());
+    }
+
+    public void testParameters() throws Exception
+    {
+        ClassMembers members = ClassMembers.forClass(Generic.class);
+        assertSame(members, ClassMembers.forClass(Generic.class));
+        Method m = members.methods(false)[0];
+        assertEquals("wrap", m.getName());
+        assertEquals(2, members.genericParameterTypes(m).length);
+        assertSame(members.genericParameterTypes(m), members.genericParameterTypes(m));
+        assertEquals(1, members.parameterAnnotations(m)[0].length);
+        assertEquals(0, members.parameterAnnotations(m)[1].length);
+        assertSame(members.parameterAnnotations(m), members.parameterAnnotations(m));
+        assertEquals(1, members.parameterAnnotations(members.constructors()[0])[0].length);
+
+        // members of other classes not accepted
+        try {
+            members.parameterAnnotations(Object.class.getDeclaredMethod("toString"));
+            fail("Should not pass");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("not declared by"));
+        }
+    }
+
+    public void testSyntheticSkipped()
+    {
+        ClassMembers members = ClassMembers.forClass(Inner.class);
+        // only "x"; not "this$0"
+        assertEquals(1, members.fields(false).length);
+        assertEquals("x", members.fields(false)[0].getName());
+        assertEquals(0, members.fields(true).length);
+    }
+
+    // Values for JDK classes must not keep the library loader from being unloaded
+    public void testLibraryLoaderCanBeCollected() throws Exception
+    {
+        WeakReference<ClassLoader> loaderRef = runWithIsolatedLibrary(ObjectMembersTask.class);
+        for (int i = 0; i < 50 && loaderRef.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+        assertNull("Library class loader should have been garbage collected", loaderRef.get());
+    }
+
+    /**
+     * Helper method that runs given task using a copy of the library (and tests)
+     * loaded by a throwaway class loader, returning a weak reference to that loader.
+     */
+    public static WeakReference<ClassLoader> runWithIsolatedLibrary(Class<? extends Runnable> task)
+        throws Exception
+    {
+        URL[] urls = new URL[] {
+                ClassMembers.class.getProtectionDomain().getCodeSource().getLocation(),
+                task.getProtectionDomain().getCodeSource().getLocation()
+        };
+        // parent is platform (extension) loader, so that library classes are not shared
+        URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+        Class<?> isolated = loader.loadClass(task.getName());
+        assertNotSame(task, isolated);
+        ((Runnable) isolated.newInstance()).run();
+        loader.close();
+        return new WeakReference<ClassLoader>(loader);
+    }
+}
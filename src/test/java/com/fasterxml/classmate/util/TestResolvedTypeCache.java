@@ -1,14 +1,23 @@
 package com.fasterxml.classmate.util;
 
 import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeBindings;
 import com.fasterxml.classmate.types.ResolvedInterfaceType;
 import com.fasterxml.classmate.types.ResolvedObjectType;
+import com.fasterxml.classmate.types.TypePlaceHolder;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 public class TestResolvedTypeCache extends TestCase
 {
@@ -30,6 +39,384 @@ public class TestResolvedTypeCache extends TestCase
         _testSimple(cache, false);
     }
 
+    public void testSimpleConcurrentLRUCaching()
+    {
+        ConcurrentLRUTypeCache cache = (ConcurrentLRUTypeCache) ResolvedTypeCache.concurrentLruCache(2);
+        _testSimple(cache, true);
+    }
+
+    public void testConcurrentLRURetainsAccessed()
+    {
+        ResolvedTypeCache cache = ResolvedTypeCache.concurrentLruCache(2);
+        ResolvedType type1 = new ResolvedInterfaceType(Map.class, null, null);
+        ResolvedType type2 = new ResolvedInterfaceType(Set.class, null, null);
+        ResolvedType type3 = new ResolvedInterfaceType(List.class, null, null);
+        cache._addForTest(type1);
+        cache._addForTest(type2);
+        // access enough times to get recorded access replayed
+        for (int i = 0; i < 100; ++i) {
+            assertSame(type1, cache.find(cache.key(Map.class)));
+        }
+        cache._addForTest(type3);
+        assertEquals(2, cache.size());
+        assertSame(type1, cache.find(cache.key(Map.class)));
+        assertNull(cache.find(cache.key(Set.class)));
+        assertSame(type3, cache.find(cache.key(List.class)));
+    }
+
+    public void testConcurrentLRUUnderContention() throws Exception
+    {
+        final ResolvedTypeCache cache = ResolvedTypeCache.concurrentLruCache(50);
+        final Class<?>[] classes = new Class<?>[] {
+                Map.class, Set.class, List.class, String.class, Integer.class, Long.class,
+                Object.class, Number.class, Comparable.class, CharSequence.class
+        };
+        Thread[] threads = new Thread[8];
+        final Throwable[] fail = new Throwable[1];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 20000; ++i) {
+                            Class<?> cls = classes[i % classes.length];
+                            ResolvedType found = cache.find(cache.key(cls));
+                            if (found == null) {
+                                cache.put(cache.key(cls), new ResolvedInterfaceType(cls, null, null));
+                            } else if (found.getErasedType() != cls) {
+                                throw new IllegalStateException("Wrong type for "+cls.getName()+": "+found);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        fail[0] = e;
+                    }
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        if (fail[0] != null) {
+            throw new AssertionError(fail[0]);
+        }
+        assertEquals(classes.length, cache.size());
+    }
+
+    // Entries replaced before their addition is drained must not leave
+    // pending writes behind (which would force draining on every read)
+    public void testConcurrentLRUReplaceWhileDrainHeld() throws Exception
+    {
+        final ConcurrentLRUTypeCache cache = (ConcurrentLRUTypeCache) ResolvedTypeCache.concurrentLruCache(50);
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread drainer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cache._evictionLock.lock();
+                try {
+                    locked.countDown();
+                    done.await();
+                } catch (InterruptedException e) {
+                } finally {
+                    cache._evictionLock.unlock();
+                }
+            }
+        });
+        drainer.start();
+        locked.await();
+        Class<?>[] classes = new Class<?>[] { Map.class, Set.class, List.class, Collection.class };
+        try {
+            for (Class<?> cls : classes) {
+                cache.put(cache.key(cls), new ResolvedInterfaceType(cls, null, null));
+                cache.put(cache.key(cls), new ResolvedInterfaceType(cls, null, null));
+            }
+            assertEquals(2L * classes.length, cache._pendingWriteCount());
+        } finally {
+            done.countDown();
+            drainer.join();
+        }
+        // next write drains all pending ones
+        cache.put(cache.key(String.class), new ResolvedInterfaceType(String.class, null, null));
+        assertEquals(0L, cache._pendingWriteCount());
+        assertEquals(classes.length + 1, cache.size());
+        assertEquals(classes.length + 1, cache.contents().size());
+        for (Class<?> cls : classes) {
+            assertNotNull(cache.find(cache.key(cls)));
+        }
+    }
+
+    // Sub-class that does not re-construct itself on deserialization
+    @SuppressWarnings("serial")
+    static class CustomCache extends ResolvedTypeCache
+    {
+        @Override
+        public ResolvedType find(ResolvedTypeKey key) {
+            _stats.recordMiss();
+            return null;
+        }
+
+        @Override
+        public int size() { return 0; }
+
+        @Override
+        public void put(ResolvedTypeKey key, ResolvedType type) {
+            _stats.recordPut();
+        }
+
+        @Override
+        public void clear() {
+            _markCleared();
+        }
+    }
+
+    public void testCustomCacheSerialization() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new CustomCache());
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        ResolvedTypeCache cache = (ResolvedTypeCache) in.readObject();
+
+        assertNull(cache.find(cache.key(Map.class)));
+        cache.recordLoadTime(100L);
+        assertEquals(1L, cache.stats().missCount());
+        assertEquals(100L, cache.stats().totalLoadTime());
+        int generation = cache.generation();
+        cache.clear();
+        assertTrue(cache.generation() != generation);
+    }
+
+    public void testSimpleClockCaching()
+    {
+        ClockTypeCache cache = (ClockTypeCache) ResolvedTypeCache.clockCache(2);
+        _testSimple(cache, true);
+        assertEquals(1L, cache.evictionCount());
+    }
+
+    public void testClockEvictsUnreferenced()
+    {
+        ClockTypeCache cache = (ClockTypeCache) ResolvedTypeCache.clockCache(3);
+        ResolvedType type1 = new ResolvedInterfaceType(Map.class, null, null);
+        ResolvedType type2 = new ResolvedInterfaceType(Set.class, null, null);
+        ResolvedType type3 = new ResolvedInterfaceType(List.class, null, null);
+        ResolvedType type4 = new ResolvedInterfaceType(Collection.class, null, null);
+        ResolvedType type5 = new ResolvedInterfaceType(Iterable.class, null, null);
+        cache._addForTest(type1);
+        cache._addForTest(type2);
+        cache._addForTest(type3);
+        assertEquals(0L, cache.evictionCount());
+
+        // type1 and type3 referenced, so type2 is the one to go
+        assertSame(type1, cache.find(cache.key(Map.class)));
+        assertSame(type3, cache.find(cache.key(List.class)));
+        cache._addForTest(type4);
+        assertEquals(3, cache.size());
+        assertEquals(1L, cache.evictionCount());
+        assertNull(cache.find(cache.key(Set.class)));
+
+        // and only one entry evicted at a time; newly added, never accessed type4 goes next
+        assertSame(type1, cache.find(cache.key(Map.class)));
+        cache._addForTest(type5);
+        assertEquals(3, cache.size());
+        assertEquals(2L, cache.evictionCount());
+        assertSame(type1, cache.find(cache.key(Map.class)));
+        assertSame(type3, cache.find(cache.key(List.class)));
+        assertSame(type5, cache.find(cache.key(Iterable.class)));
+        assertNull(cache.find(cache.key(Collection.class)));
+    }
+
+    public void testStats()
+    {
+        _testStats(ResolvedTypeCache.lruCache(2), 1L);
+        _testStats(ResolvedTypeCache.concurrentCache(2), 2L);
+        _testStats(ResolvedTypeCache.concurrentLruCache(2), 1L);
+        _testStats(ResolvedTypeCache.clockCache(2), 1L);
+        _testStats(ResolvedTypeCache.tinyLfuCache(2), 1L);
+    }
+
+    private void _testStats(ResolvedTypeCache cache, long expEvictions)
+    {
+        String desc = cache.getClass().getSimpleName();
+        CacheStats stats = cache.stats();
+        assertEquals(desc, 0L, stats.requestCount());
+        assertEquals(desc, 1.0, stats.hitRate());
+
+        ResolvedType type1 = new ResolvedInterfaceType(Map.class, null, null);
+        ResolvedType type2 = new ResolvedInterfaceType(Set.class, null, null);
+        ResolvedType type3 = new ResolvedInterfaceType(List.class, null, null);
+        assertNull(cache.find(cache.key(Map.class)));
+        cache._addForTest(type1);
+        cache.recordLoadTime(100L);
+        assertSame(type1, cache.find(cache.key(Map.class)));
+        assertSame(type1, cache.find(cache.key(Map.class)));
+        assertNull(cache.find(cache.key(Set.class)));
+        cache._addForTest(type2);
+        cache.recordLoadTime(300L);
+        // make sure newest one gets admitted by TinyLFU, too
+        for (int i = 0; i < 4; ++i) {
+            assertNull(cache.find(cache.key(List.class)));
+        }
+        cache._addForTest(type3);
+
+        stats = cache.stats();
+        assertEquals(desc, 2L, stats.hitCount());
+        assertEquals(desc, 6L, stats.missCount());
+        assertEquals(desc, 3L, stats.putCount());
+        assertEquals(desc, expEvictions, stats.evictionCount());
+        assertEquals(desc, 400L, stats.totalLoadTime());
+        assertEquals(desc, 2.0 / 8.0, stats.hitRate(), 0.0001);
+    }
+
+    public void testClear()
+    {
+        _testClear(ResolvedTypeCache.lruCache(5));
+        _testClear(ResolvedTypeCache.concurrentCache(5));
+        _testClear(ResolvedTypeCache.concurrentLruCache(5));
+        _testClear(ResolvedTypeCache.clockCache(5));
+        _testClear(ResolvedTypeCache.tinyLfuCache(5));
+        _testClear(ResolvedTypeCache.classLoaderAwareCache(5));
+        _testClear(ResolvedTypeCache.threadLocalCache(ResolvedTypeCache.lruCache(5), 4));
+    }
+
+    private void _testClear(ResolvedTypeCache cache)
+    {
+        String desc = cache.getClass().getSimpleName();
+        cache._addForTest(new ResolvedInterfaceType(Map.class, null, null));
+        cache._addForTest(new ResolvedInterfaceType(Set.class, null, null));
+        assertEquals(desc, 2, cache.size());
+        assertEquals(desc, 2, cache.contents().size());
+        int gen = cache.generation();
+        cache.clear();
+        assertEquals(desc, 0, cache.size());
+        assertEquals(desc, 0, cache.contents().size());
+        assertTrue(desc, gen != cache.generation());
+        assertNull(desc, cache.find(cache.key(Map.class)));
+        // and should be usable after clearing, too
+        ResolvedType type = new ResolvedInterfaceType(List.class, null, null);
+        cache._addForTest(type);
+        assertSame(desc, type, cache.find(cache.key(List.class)));
+    }
+
+    // Shared cache that is neither bundled nor supports clearing
+    public void testThreadLocalClearWithCustomShared()
+    {
+        ResolvedTypeCache shared = new ResolvedTypeCache() {
+            private static final long serialVersionUID = 1L;
+
+            private final Map<ResolvedTypeKey, ResolvedType> _map = new HashMap<ResolvedTypeKey, ResolvedType>();
+
+            @Override
+            public synchronized ResolvedType find(ResolvedTypeKey key) { return _map.get(key); }
+
+            @Override
+            public synchronized int size() { return _map.size(); }
+
+            @Override
+            public synchronized void put(ResolvedTypeKey key, ResolvedType type) { _map.put(key, type); }
+        };
+        ResolvedTypeCache cache = ResolvedTypeCache.threadLocalCache(shared, 4);
+        ResolvedType type = new ResolvedInterfaceType(Map.class, null, null);
+        cache._addForTest(type);
+        assertSame(type, cache.find(cache.key(Map.class)));
+        int gen = cache.generation();
+        cache.clear();
+        assertTrue(gen != cache.generation());
+        // thread-local entry discarded, but shared one is not
+        long hits = cache.stats().hitCount();
+        assertSame(type, cache.find(cache.key(Map.class)));
+        assertEquals(1, shared.size());
+        assertEquals(hits, cache.stats().hitCount());
+    }
+
+    public void testFindWithoutKey()
+    {
+        _testFindWithoutKey(ResolvedTypeCache.lruCache(5));
+        _testFindWithoutKey(ResolvedTypeCache.concurrentCache(5));
+        _testFindWithoutKey(ResolvedTypeCache.concurrentLruCache(5));
+        _testFindWithoutKey(ResolvedTypeCache.clockCache(5));
+        _testFindWithoutKey(ResolvedTypeCache.tinyLfuCache(5));
+        _testFindWithoutKey(ResolvedTypeCache.classLoaderAwareCache(5));
+        _testFindWithoutKey(ResolvedTypeCache.threadLocalCache(ResolvedTypeCache.lruCache(5), 4));
+    }
+
+    private void _testFindWithoutKey(ResolvedTypeCache cache)
+    {
+        String desc = cache.getClass().getSimpleName();
+        ResolvedType stringType = ResolvedObjectType.create(String.class, null, null, null);
+        ResolvedType longType = ResolvedObjectType.create(Long.class, null, null, null);
+        ResolvedType listType = new ResolvedInterfaceType(List.class,
+                TypeBindings.create(List.class, new ResolvedType[] { stringType }), null);
+        ResolvedType mapType = new ResolvedInterfaceType(Map.class, null, null);
+        cache._addForTest(listType);
+        cache._addForTest(mapType);
+
+        // twice, to get thread-local cache hits as well
+        for (int i = 0; i < 2; ++i) {
+            assertSame(desc, listType, cache.find(List.class, new ResolvedType[] { stringType }));
+            assertSame(desc, mapType, cache.find(Map.class, null));
+            assertSame(desc, mapType, cache.find(Map.class, new ResolvedType[0]));
+            assertNull(desc, cache.find(List.class, new ResolvedType[] { longType }));
+            assertNull(desc, cache.find(List.class, null));
+            assertNull(desc, cache.find(Set.class, null));
+        }
+        // types with placeholders are never cached, nor counted as lookups
+        long lookups = cache.stats().requestCount();
+        assertNull(desc, cache.find(List.class, new ResolvedType[] { new TypePlaceHolder(0) }));
+        assertEquals(desc, lookups, cache.stats().requestCount());
+    }
+
+    public void testThreadLocalCaching()
+    {
+        ResolvedTypeCache shared = ResolvedTypeCache.lruCache(10);
+        ResolvedTypeCache cache = ResolvedTypeCache.threadLocalCache(shared, 8);
+        ResolvedType type1 = new ResolvedInterfaceType(Map.class, null, null);
+        cache._addForTest(type1);
+        assertEquals(1, shared.size());
+        assertEquals(1, cache.size());
+        for (int i = 0; i < 5; ++i) {
+            assertSame(type1, cache.find(cache.key(Map.class)));
+        }
+        // all lookups served by thread-local cache...
+        assertEquals(0L, shared.stats().requestCount());
+        // ... but counted as hits for the combined stats
+        CacheStats stats = cache.stats();
+        assertEquals(5L, stats.hitCount());
+        assertEquals(1L, stats.putCount());
+
+        // entries added to shared cache directly are found as well
+        ResolvedType type2 = new ResolvedInterfaceType(Set.class, null, null);
+        shared._addForTest(type2);
+        assertSame(type2, cache.find(cache.key(Set.class)));
+        assertSame(type2, cache.find(cache.key(Set.class)));
+        assertEquals(1L, shared.stats().hitCount());
+
+        // and clearing of shared cache must invalidate local entries
+        shared.clear();
+        assertNull(cache.find(cache.key(Map.class)));
+        assertNull(cache.find(cache.key(Set.class)));
+    }
+
+    public void testThreadLocalCachesArePerThread() throws Exception
+    {
+        final ResolvedTypeCache shared = ResolvedTypeCache.lruCache(10);
+        final ResolvedTypeCache cache = ResolvedTypeCache.threadLocalCache(shared, 8);
+        cache._addForTest(new ResolvedInterfaceType(Map.class, null, null));
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cache.find(cache.key(Map.class));
+            }
+        });
+        t.start();
+        t.join();
+        // other thread has to go to shared cache
+        assertEquals(1L, shared.stats().hitCount());
+    }
+
     private void _testSimple(ResolvedTypeCache cache, boolean lru) {
         assertEquals(0, cache.size());
         // bogus, just needed for testing:
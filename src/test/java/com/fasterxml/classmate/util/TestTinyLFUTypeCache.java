@@ -0,0 +1,105 @@
+package com.fasterxml.classmate.util;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.types.ResolvedObjectType;
+
+import junit.framework.TestCase;
+
+public class TestTinyLFUTypeCache extends TestCase
+{
+    private final static Class<?>[] HOT_TYPES = new Class<?>[] {
+        String.class, Integer.class, Long.class, Short.class, Byte.class,
+        Double.class, Float.class, Boolean.class, Character.class, Date.class,
+        BitSet.class, Locale.class, UUID.class, Random.class, StringBuilder.class
+    };
+
+    public void testAdmissionWhenFull()
+    {
+        TinyLFUTypeCache cache = (TinyLFUTypeCache) ResolvedTypeCache.tinyLfuCache(2);
+        ResolvedType type1 = _type(String.class);
+        ResolvedType type2 = _type(Integer.class);
+        ResolvedType type3 = _type(Long.class);
+        cache._addForTest(type1);
+        cache._addForTest(type2);
+        assertEquals(2, cache.size());
+
+        // never requested, so not admitted over existing entries
+        cache._addForTest(type3);
+        assertEquals(2, cache.size());
+        assertNull(cache.find(cache.key(Long.class)));
+
+        // but once requested often enough, will replace least-recently used entry
+        for (int i = 0; i < 5; ++i) {
+            assertNull(cache.find(cache.key(Long.class)));
+        }
+        assertSame(type2, cache.find(cache.key(Integer.class)));
+        cache._addForTest(type3);
+        assertEquals(2, cache.size());
+        assertSame(type3, cache.find(cache.key(Long.class)));
+        assertSame(type2, cache.find(cache.key(Integer.class)));
+        assertNull(cache.find(cache.key(String.class)));
+    }
+
+    /**
+     * Trace-driven comparison: small hot set mixed with a long tail of
+     * one-off types, which should not displace the hot set.
+     */
+    public void testHitRateWithLongTail()
+    {
+        List<Class<?>> trace = _trace();
+        int lruHits = _replay(ResolvedTypeCache.lruCache(20), trace);
+        int lfuHits = _replay(ResolvedTypeCache.tinyLfuCache(20), trace);
+
+        // LRU gets no hits at all, since tail keeps flushing hot types
+        assertTrue("TinyLFU hits ("+lfuHits+") should exceed LRU hits ("+lruHits+")",
+                lfuHits > lruHits);
+        // and hot set is 25% of the trace; should get most of that
+        assertTrue("Too few TinyLFU hits: "+lfuHits+"/"+trace.size(),
+                lfuHits > (trace.size() / 5));
+    }
+
+    private List<Class<?>> _trace()
+    {
+        // Use array types of increasing dimensions as distinct one-off types
+        List<Class<?>> tail = new ArrayList<Class<?>>();
+        Class<?>[] bases = new Class<?>[] { Object.class, Number.class, Thread.class,
+                Calendar.class, Map.class, List.class, Set.class, Iterator.class };
+        for (Class<?> base : bases) {
+            Class<?> cls = base;
+            for (int dim = 0; dim < 200; ++dim) {
+                cls = Array.newInstance(cls, 0).getClass();
+                tail.add(cls);
+            }
+        }
+        List<Class<?>> trace = new ArrayList<Class<?>>();
+        int tailIndex = 0;
+        while (tailIndex + 3 <= tail.size()) {
+            trace.add(HOT_TYPES[trace.size() % HOT_TYPES.length]);
+            trace.add(tail.get(tailIndex++));
+            trace.add(tail.get(tailIndex++));
+            trace.add(tail.get(tailIndex++));
+        }
+        return trace;
+    }
+
+    private int _replay(ResolvedTypeCache cache, List<Class<?>> trace)
+    {
+        int hits = 0;
+        for (Class<?> cls : trace) {
+            ResolvedTypeKey key = cache.key(cls);
+            if (cache.find(key) != null) {
+                ++hits;
+            } else {
+                cache.put(key, _type(cls));
+            }
+        }
+        return hits;
+    }
+
+    private ResolvedType _type(Class<?> cls) {
+        return ResolvedObjectType.create(cls, null, null, null);
+    }
+}
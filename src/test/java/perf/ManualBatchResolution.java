@@ -0,0 +1,153 @@
+package perf;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+
+/**
+ * Manually run benchmark that compares resolving a large set of types
+ * (classes and parameterized types collected from signatures of JDK classes,
+ * so that there are duplicates, and types share many supertypes) using {@link TypeResolver#resolveAll} against resolving
+ * them one by one using {@link TypeResolver#resolve}, with default-sized
+ * type cache (which is too small to hold all supertypes).
+ *<p>
+ * Usage: <code>java perf.ManualBatchResolution [seconds] [classes]</code>
+ */
+public class ManualBatchResolution
+{
+    private final static Class<?>[] SEEDS = new Class<?>[] {
+        String.class, Thread.class, Class.class, HashMap.class, ArrayList.class,
+        Collections.class, java.util.concurrent.ConcurrentHashMap.class,
+        java.util.concurrent.Executors.class, java.io.File.class, java.net.URL.class,
+        java.nio.ByteBuffer.class, java.text.SimpleDateFormat.class,
+        java.lang.management.ManagementFactory.class, javax.management.MBeanServer.class,
+        java.util.logging.Logger.class, java.util.zip.ZipFile.class,
+        java.nio.channels.FileChannel.class, java.nio.file.Files.class, java.sql.DriverManager.class,
+        java.beans.Introspector.class, java.security.KeyStore.class, javax.naming.InitialContext.class
+    };
+
+    private final int _seconds;
+
+    private final List<Type> _types;
+
+    public ManualBatchResolution(int seconds, int classes) {
+        _seconds = seconds;
+        _types = collectTypes(classes);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        int classes = (args.length > 1) ? Integer.parseInt(args[1]) : 2000;
+        new ManualBatchResolution(seconds, classes).run();
+    }
+
+    public void run()
+    {
+        System.out.printf("Resolving %,d types (%,d distinct)%n", _types.size(),
+                new HashSet<Type>(_types).size());
+        for (int round = 1; round <= 3; ++round) {
+            System.out.printf("Round %d:%n", round);
+            test("resolve()", false);
+            test("resolveAll()", true);
+        }
+    }
+
+    private void test(String desc, boolean batch)
+    {
+        final long endTime = System.currentTimeMillis() + (_seconds * 1000L);
+        int batches = 0;
+        int hash = 0;
+        do {
+            // new resolver for each batch, to measure resolution and not cache hits
+            TypeResolver resolver = new TypeResolver();
+            if (batch) {
+                for (ResolvedType type : resolver.resolveAll(_types)) {
+                    hash += type.hashCode();
+                }
+            } else {
+                for (Type type : _types) {
+                    hash += resolver.resolve(type).hashCode();
+                }
+            }
+            ++batches;
+        } while (System.currentTimeMillis() < endTime);
+        System.out.printf("  %-14s -> %,d types/sec%s%n", desc,
+                ((long) batches * _types.size()) / _seconds, (hash == 1) ? "" : "");
+    }
+
+    // Breadth-first traversal over public member signatures (and nested classes),
+    // collecting both classes and parameterized types without type variables
+    private static List<Type> collectTypes(int maxClasses)
+    {
+        List<Type> types = new ArrayList<Type>();
+        Set<Class<?>> seen = new HashSet<Class<?>>();
+        Deque<Class<?>> queue = new ArrayDeque<Class<?>>(Arrays.asList(SEEDS));
+        while (!queue.isEmpty() && seen.size() < maxClasses) {
+            Class<?> cls = queue.removeFirst();
+            while (cls.isArray()) {
+                cls = cls.getComponentType();
+            }
+            if (cls.isPrimitive() || !seen.add(cls)) {
+                continue;
+            }
+            types.add(cls);
+            try {
+                for (Method m : cls.getMethods()) {
+                    queue.addLast(m.getReturnType());
+                    queue.addAll(Arrays.asList(m.getParameterTypes()));
+                    queue.addAll(Arrays.asList(m.getExceptionTypes()));
+                    _addGeneric(types, m.getGenericReturnType());
+                    for (Type t : m.getGenericParameterTypes()) {
+                        _addGeneric(types, t);
+                    }
+                }
+                for (Field f : cls.getFields()) {
+                    queue.addLast(f.getType());
+                    _addGeneric(types, f.getGenericType());
+                }
+                queue.addAll(Arrays.asList(cls.getClasses()));
+            } catch (Throwable t) { // linkage problems, skip
+            }
+        }
+        return types;
+    }
+
+    private static void _addGeneric(List<Type> types, Type type)
+    {
+        if ((type instanceof ParameterizedType) && !_hasVariables(type)) {
+            types.add(type);
+        }
+    }
+
+    private static boolean _hasVariables(Type type)
+    {
+        if (type instanceof TypeVariable<?>) {
+            return true;
+        }
+        if (type instanceof ParameterizedType) {
+            for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
+                if (_hasVariables(arg)) {
+                    return true;
+                }
+            }
+        } else if (type instanceof WildcardType) {
+            WildcardType wt = (WildcardType) type;
+            for (Type bound : wt.getUpperBounds()) {
+                if (_hasVariables(bound)) {
+                    return true;
+                }
+            }
+            for (Type bound : wt.getLowerBounds()) {
+                if (_hasVariables(bound)) {
+                    return true;
+                }
+            }
+        } else if (type instanceof GenericArrayType) {
+            return _hasVariables(((GenericArrayType) type).getGenericComponentType());
+        }
+        return false;
+    }
+}
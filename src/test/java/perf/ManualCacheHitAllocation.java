@@ -0,0 +1,76 @@
+package perf;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeBindings;
+import com.fasterxml.classmate.TypeResolver;
+import com.fasterxml.classmate.util.ResolvedTypeCache;
+
+/**
+ * Manually run benchmark that measures number of bytes allocated per
+ * {@link TypeResolver} cache hit (using per-thread allocation counters of
+ * HotSpot-based JVMs), for different {@link ResolvedTypeCache} implementations:
+ * resolution of both non-parameterized and parameterized types
+ * (with pre-constructed {@link TypeBindings}) should not allocate anything.
+ *<p>
+ * Usage: <code>java perf.ManualCacheHitAllocation [iterations]</code>
+ */
+public class ManualCacheHitAllocation
+{
+    private final int _iterations;
+
+    private final com.sun.management.ThreadMXBean _threadBean;
+
+    public ManualCacheHitAllocation(int iterations) {
+        _iterations = iterations;
+        _threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        new ManualCacheHitAllocation(iterations).run();
+    }
+
+    public void run()
+    {
+        for (int round = 1; round <= 3; ++round) {
+            System.out.printf("Round %d:%n", round);
+            test("LRU", ResolvedTypeCache.lruCache(200));
+            test("Concurrent", ResolvedTypeCache.concurrentCache(200));
+            test("ConcurrentLRU", ResolvedTypeCache.concurrentLruCache(200));
+            test("Clock", ResolvedTypeCache.clockCache(200));
+            test("TinyLFU", ResolvedTypeCache.tinyLfuCache(200));
+            test("ClassLoaderAware", ResolvedTypeCache.classLoaderAwareCache(200));
+            test("ThreadLocal", ResolvedTypeCache.threadLocalCache(ResolvedTypeCache.lruCache(200), 16));
+        }
+    }
+
+    private void test(String desc, ResolvedTypeCache cache)
+    {
+        final TypeResolver resolver = new TypeResolver(cache);
+        final TypeBindings empty = TypeBindings.emptyBindings();
+        // bindings for HashMap<String,Long>; resolved once to populate cache
+        final TypeBindings mapBindings = resolver.resolve(HashMap.class, String.class, Long.class)
+                .getTypeBindings();
+        resolver.resolve(empty, Locale.class);
+
+        int hash = 0;
+        // first warm up, then measure
+        for (int i = 0; i < 2; ++i) {
+            long start = _threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int j = 0; j < _iterations; ++j) {
+                ResolvedType t1 = resolver.resolve(empty, Locale.class);
+                ResolvedType t2 = resolver.resolve(mapBindings, HashMap.class);
+                hash += t1.hashCode() + t2.hashCode();
+            }
+            long bytes = _threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+            if (i == 1) {
+                System.out.printf("  %-16s -> %.2f bytes/hit%s%n", desc,
+                        bytes / (2.0 * _iterations), (hash == 1) ? "" : "");
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package perf;
+
+import java.util.*;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+import com.fasterxml.classmate.util.ResolvedTypeCache;
+import com.fasterxml.classmate.util.ResolvedTypeKey;
+
+/**
+ * Manually run benchmark for workloads with thousands of parameterizations of
+ * a single generic class (like <code>Map&lt;K,V&gt;</code> for all combinations
+ * of key and value types), as is common for data-binding libraries: measures
+ * distribution of hash codes of cache keys, as well as throughput of
+ * {@link TypeResolver#resolve} calls (mostly cache hits) and of
+ * {@link ResolvedType#hashCode}/{@link ResolvedType#equals} via a {@link HashMap}.
+ *<p>
+ * Usage: <code>java perf.ManualParameterizedTypeHashing [seconds]</code>
+ */
+public class ManualParameterizedTypeHashing
+{
+    private final static Class<?>[] PARAMS = new Class<?>[] {
+        String.class, Integer.class, Long.class, Short.class, Byte.class, Double.class,
+        Float.class, Boolean.class, Character.class, Date.class, BitSet.class, Locale.class,
+        UUID.class, Calendar.class, Random.class, Object.class, Number.class, StringBuilder.class,
+        Thread.class, Class.class, Currency.class, TimeZone.class, Properties.class, Timer.class,
+        java.math.BigDecimal.class, java.math.BigInteger.class, java.io.File.class, java.net.URI.class,
+        java.net.URL.class, java.util.regex.Pattern.class, java.nio.ByteBuffer.class,
+        java.nio.CharBuffer.class, java.sql.Timestamp.class, java.sql.Time.class,
+        java.text.SimpleDateFormat.class, java.util.concurrent.TimeUnit.class,
+        Thread.State.class, StringBuffer.class, Exception.class, RuntimeException.class,
+        Error.class, Void.class, Runtime.class, Process.class, Package.class,
+        ClassLoader.class, Throwable.class, Enum.class, Math.class, System.class
+    };
+
+    private final int _seconds;
+
+    public ManualParameterizedTypeHashing(int seconds) {
+        _seconds = seconds;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        new ManualParameterizedTypeHashing(seconds).run();
+    }
+
+    public void run()
+    {
+        final int count = PARAMS.length * PARAMS.length;
+        final ResolvedTypeCache cache = ResolvedTypeCache.concurrentCache(count * 2);
+        final TypeResolver resolver = new TypeResolver(cache);
+        final ResolvedType[] params = new ResolvedType[PARAMS.length];
+        for (int i = 0; i < params.length; ++i) {
+            params[i] = resolver.resolve(PARAMS[i]);
+        }
+        List<ResolvedType> mapTypes = new ArrayList<ResolvedType>(count);
+        Set<Integer> keyHashes = new HashSet<Integer>();
+        for (ResolvedType key : params) {
+            for (ResolvedType value : params) {
+                mapTypes.add(resolver.resolve(Map.class, key, value));
+                keyHashes.add(new ResolvedTypeKey(Map.class, new ResolvedType[] { key, value }).hashCode());
+            }
+        }
+        System.out.printf("%,d parameterizations of Map, %,d distinct key hash codes%n",
+                count, keyHashes.size());
+
+        for (int round = 1; round <= 3; ++round) {
+            System.out.printf("Round %d:%n", round);
+            testResolve(resolver, params);
+            testHashMap(mapTypes);
+        }
+    }
+
+    private void testResolve(TypeResolver resolver, ResolvedType[] params)
+    {
+        final long endTime = System.currentTimeMillis() + (_seconds * 1000L);
+        final int len = params.length;
+        long total = 0L;
+        int hash = 0;
+        do {
+            for (int i = 0; i < len; ++i) {
+                for (int j = 0; j < len; ++j) {
+                    hash += resolver.resolve(Map.class, params[i], params[j]).hashCode();
+                }
+            }
+            total += len * len;
+        } while (System.currentTimeMillis() < endTime);
+        System.out.printf("  resolve()      -> %,d resolutions/sec%s%n", total / _seconds,
+                (hash == 1) ? "" : "");
+    }
+
+    private void testHashMap(List<ResolvedType> types)
+    {
+        final long endTime = System.currentTimeMillis() + (_seconds * 1000L);
+        long total = 0L;
+        int found = 0;
+        do {
+            Map<ResolvedType, Integer> map = new HashMap<ResolvedType, Integer>();
+            for (int i = 0, len = types.size(); i < len; ++i) {
+                map.put(types.get(i), i);
+            }
+            for (ResolvedType type : types) {
+                if (map.get(type) != null) {
+                    ++found;
+                }
+            }
+            total += types.size();
+        } while (System.currentTimeMillis() < endTime);
+        System.out.printf("  HashMap        -> %,d put+get/sec%s%n", total / _seconds,
+                (found == 1) ? "" : "");
+    }
+}
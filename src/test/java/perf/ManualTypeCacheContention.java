@@ -0,0 +1,99 @@
+package perf;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+import com.fasterxml.classmate.util.ResolvedTypeCache;
+
+/**
+ * Manually run contention benchmark that compares throughput of
+ * {@link TypeResolver#resolve} calls for different {@link ResolvedTypeCache}
+ * implementations, when many threads resolve a mostly-cached set of types.
+ *<p>
+ * Usage: <code>java perf.ManualTypeCacheContention [threads] [seconds]</code>
+ */
+public class ManualTypeCacheContention
+{
+    private final static Class<?>[] TYPES = new Class<?>[] {
+        String.class, Integer.class, Long.class, Date.class, BitSet.class, Locale.class,
+        ArrayList.class, HashMap.class, TreeMap.class, LinkedList.class, HashSet.class,
+        StringBuilder.class, Thread.class, Random.class, UUID.class, Calendar.class
+    };
+
+    private final int _threads;
+    private final int _seconds;
+
+    public ManualTypeCacheContention(int threads, int seconds) {
+        _threads = threads;
+        _seconds = seconds;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors() * 2;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        new ManualTypeCacheContention(threads, seconds).run();
+    }
+
+    public void run() throws Exception
+    {
+        System.out.printf("Using %d threads, %d seconds per round%n", _threads, _seconds);
+        for (int round = 1; round <= 3; ++round) {
+            System.out.printf("Round %d:%n", round);
+            test("LRU", ResolvedTypeCache.lruCache(200));
+            test("Concurrent", ResolvedTypeCache.concurrentCache(200));
+            test("ConcurrentLRU", ResolvedTypeCache.concurrentLruCache(200));
+            test("Clock", ResolvedTypeCache.clockCache(200));
+        }
+    }
+
+    private void test(String desc, ResolvedTypeCache cache) throws Exception
+    {
+        final TypeResolver resolver = new TypeResolver(cache);
+        // pre-populate
+        for (Class<?> cls : TYPES) {
+            resolver.resolve(cls);
+        }
+        final AtomicLong total = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final long endTime = System.currentTimeMillis() + (_seconds * 1000L);
+        Thread[] threads = new Thread[_threads];
+        for (int i = 0; i < _threads; ++i) {
+            final int offset = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long count = 0;
+                    int ix = offset;
+                    int hash = 0;
+                    while (true) {
+                        for (int j = 0; j < 1000; ++j) {
+                            ResolvedType t = resolver.resolve(TYPES[ix++ & 15]);
+                            hash += t.hashCode();
+                        }
+                        count += 1000;
+                        if (System.currentTimeMillis() >= endTime) {
+                            break;
+                        }
+                    }
+                    total.addAndGet(count + (hash & 0));
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        System.out.printf("  %-14s -> %,d resolutions/sec%n", desc, total.get() / _seconds);
+    }
+}
@@ -0,0 +1,105 @@
+package perf;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.classmate.*;
+import com.fasterxml.classmate.util.ResolvedTypeCache;
+
+/**
+ * Manually run benchmark that starts a large number of virtual threads (by default
+ * 100,000), each of which resolves a type using {@link TypeResolver}, and then its
+ * members using {@link MemberResolver}, for different type cache implementations.
+ * Resolvers are shared by all threads.
+ *<p>
+ * Virtual threads require JDK 21 or later; with earlier JDKs, a pool of
+ * platform threads is used instead. To check that carrier threads are not pinned
+ * (on JDKs before 24, where waiting for a monitor pins), run with
+ * <code>-Djdk.tracePinnedThreads=short</code>: no stack traces should be printed.
+ *<p>
+ * Usage: <code>java perf.ManualVirtualThreadResolution [threads]</code>
+ */
+public class ManualVirtualThreadResolution
+{
+    private final static Class<?>[] TYPES = new Class<?>[] {
+        String.class, Integer.class, Long.class, Date.class, Locale.class, UUID.class,
+        ArrayList.class, LinkedList.class, HashMap.class, TreeMap.class, HashSet.class,
+        Thread.class, StringBuilder.class, java.io.File.class, java.net.URI.class,
+        java.math.BigDecimal.class, java.util.concurrent.ConcurrentHashMap.class,
+        java.util.concurrent.ThreadPoolExecutor.class, java.text.SimpleDateFormat.class,
+        java.util.regex.Pattern.class
+    };
+
+    private final int _threads;
+
+    public ManualVirtualThreadResolution(int threads) {
+        _threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        new ManualVirtualThreadResolution(threads).run();
+    }
+
+    public void run() throws Exception
+    {
+        ExecutorService exec = _executor();
+        System.out.printf("Using %s%n", exec.getClass().getSimpleName());
+        exec.shutdown();
+        for (int round = 1; round <= 3; ++round) {
+            System.out.printf("Round %d:%n", round);
+            test("LRU", ResolvedTypeCache.lruCache(200));
+            test("TinyLFU", ResolvedTypeCache.tinyLfuCache(200));
+            test("ConcurrentLRU", ResolvedTypeCache.concurrentLruCache(200));
+            test("Clock", ResolvedTypeCache.clockCache(200));
+        }
+    }
+
+    private void test(String desc, ResolvedTypeCache cache) throws Exception
+    {
+        final TypeResolver typeResolver = new TypeResolver(cache);
+        final MemberResolver memberResolver = new MemberResolver(typeResolver)
+            .setResultCacheSize(100);
+        final AtomicLong methods = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(_threads);
+        ExecutorService exec = _executor();
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < _threads; ++i) {
+                final Class<?> raw = TYPES[i % TYPES.length];
+                exec.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            ResolvedType type = typeResolver.resolve(raw);
+                            ResolvedTypeWithMembers members = memberResolver.resolve(type, null, null);
+                            methods.addAndGet(members.getMemberMethods().length);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            exec.shutdown();
+        }
+        long msecs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("  %-14s -> %,d threads in %,d ms (%,d methods)%n", desc,
+                _threads, msecs, methods.get());
+    }
+
+    private static ExecutorService _executor()
+    {
+        try {
+            // JDK 21+; accessed reflectively as build targets Java 8
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (Exception e) {
+            return Executors.newFixedThreadPool(256);
+        }
+    }
+}